@@ -0,0 +1,447 @@
+package bench;
+
+import java.io.FileWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import stringgenerator.KeyLength;
+import stringgenerator.KeyPopularity;
+import stringgenerator.RandomStringGenerator;
+import stringgenerator.Xoshiro256;
+import trace.Target;
+import trace.Targets;
+
+/**
+ * Headless benchmark driver for the hash tables and heaps.
+ * For each key count from --keys, each thread fills its own
+ * structure with that many keys, runs the operation mix through a
+ * warmup phase and then a timed phase, and counts the operations
+ * completed, timing one operation in every --sample into a
+ * LatencyHistogram per thread. With --shared, all threads use one structure behind a
+ * lock instead. One result row per key count is written as CSV or
+ * JSON; with --sample 0 the latency columns are left empty.
+ * A failure in any worker stops the run and is rethrown by main.
+ * <p>
+ * Usage: java bench.BenchmarkDriver [options]
+ * <pre>
+ *   --structure NAME   one of Targets.NAMES (default quadratic)
+ *   --mix SPEC         op=weight list, ops insert, remove, contains,
+ *                      deletemin (default insert=25,remove=25,contains=50
+ *                      for hash tables, insert=50,deletemin=50 for heaps)
+ *   --keys MIN[:MAX]   key counts, doubling from MIN to MAX (default 1024)
+ *   --threads N        worker threads (default 1)
+ *   --warmup SECONDS   untimed warmup per run (default 1)
+ *   --duration SECONDS timed phase per run (default 3)
+ *   --popularity P     uniform or zipfian (default uniform)
+ *   --seed N           seed for keys and operations (default 1)
+ *   --sample N         time one operation in N for latencies, 0 for
+ *                      none (default 16)
+ *   --shared           all threads share one locked structure
+ *   --format F         csv or json (default csv)
+ *   --output FILE      write results to FILE instead of stdout
+ * </pre>
+ */
+public class BenchmarkDriver
+{
+    public static void main( String [ ] args ) throws Exception
+    {
+        Options o;
+        try
+        {
+            o = Options.parse( args );
+        }
+        catch( IllegalArgumentException e )
+        {
+            System.err.println( e.getMessage( ) );
+            System.err.println( "see the BenchmarkDriver class comment for options" );
+            System.exit( 2 );
+            return;
+        }
+
+        List<Row> rows = new ArrayList<>( );
+        for( int keys = o.minKeys; keys <= o.maxKeys; keys *= 2 )
+        {
+            Row row = run( o, keys );
+            rows.add( row );
+            System.err.println( String.format( Locale.ROOT, "%s keys=%d threads=%d: %.0f ops/s, %s",
+                    o.structure, keys, o.threads, row.throughput( ),
+                    o.sample == 0 ? "no latency samples" : row.latency ) );
+            if( keys > Integer.MAX_VALUE / 2 )
+                break;
+        }
+
+        Writer w = o.output == null ? new OutputStreamWriter( System.out ) : new FileWriter( o.output );
+        try( PrintWriter out = new PrintWriter( w ) )
+        {
+            if( o.json )
+                writeJson( out, o, rows );
+            else
+                writeCsv( out, o, rows );
+        }
+    }
+
+    /**
+     * The result of one run.
+     */
+    static class Row
+    {
+        int keys;
+        long operations;
+        long nanos;
+        LatencyHistogram latency = new LatencyHistogram( );   // Merged over threads
+
+        double throughput( )
+        {
+            return nanos == 0 ? 0 : operations * 1e9 / nanos;
+        }
+    }
+
+    private static final int WARMUP = 0, MEASURE = 1, STOP = 2;
+    private static final int CHECK_EVERY = 256;   // Ops between phase checks
+
+    /**
+     * Run every thread against structures of the given key count.
+     */
+    static Row run( final Options o, final int keys ) throws Exception
+    {
+        final Target shared = o.shared ? locked( Targets.create( o.structure, keys ) ) : null;
+        final long [ ] counts = new long[ o.threads ];
+        final LatencyHistogram [ ] latencies = new LatencyHistogram[ o.threads ];
+        final CyclicBarrier ready = new CyclicBarrier( o.threads + 1 );
+        final Phase p = new Phase( );
+        final AtomicReference<Throwable> failure = new AtomicReference<>( );
+
+        Thread [ ] workers = new Thread[ o.threads ];
+        for( int t = 0; t < o.threads; t++ )
+        {
+            final int id = t;
+            workers[ t ] = new Thread( new Runnable( )
+            {
+                public void run( )
+                {
+                    try
+                    {
+                        work( );
+                    }
+                    catch( Throwable e )
+                    {
+                            // Stop the others, and break the barrier so that
+                            // anyone waiting at it, or arriving later, is released
+                        failure.compareAndSet( null, e );
+                        p.state = STOP;
+                        try
+                        {
+                            ready.await( 0, TimeUnit.NANOSECONDS );
+                        }
+                        catch( Exception ignored )
+                        {
+                        }
+                    }
+                }
+
+                private void work( ) throws InterruptedException
+                {
+                        // Threads sharing a structure share its keys too
+                    RandomStringGenerator gen = RandomStringGenerator.stream( o.seed,
+                            shared != null ? 0 : id, KeyLength.uniform( 1, 9 ) );
+                    String [ ] keySpace = new String[ keys ];
+                    gen.fill( keySpace );
+                    Target target = shared != null ? shared : Targets.create( o.structure, keys );
+                    if( shared == null || id == 0 )
+                        for( String k : keySpace )
+                            target.apply( Target.INSERT, k );
+
+                    KeyPopularity popularity = o.zipfian
+                            ? KeyPopularity.zipfian( keys, 0.99 ) : KeyPopularity.uniform( keys );
+                    Xoshiro256 rnd = Xoshiro256.stream( ~o.seed, id );
+                    try
+                    {
+                        ready.await( );
+                    }
+                    catch( BrokenBarrierException e )
+                    {
+                        return;   // Another worker failed
+                    }
+
+                    LatencyHistogram latency = new LatencyHistogram( );
+                    long ops = 0;
+                    int untilSample = o.sample;
+                    for( int state; ( state = p.state ) != STOP; )
+                    {
+                        for( int i = 0; i < CHECK_EVERY; i++ )
+                        {
+                            int op = o.nextOp( rnd );
+                            String key = keySpace[ popularity.next( rnd ) ];
+                            if( o.sample == 0 || --untilSample != 0 )
+                                target.apply( op, key );
+                            else
+                            {
+                                untilSample = o.sample;
+                                long start = System.nanoTime( );
+                                target.apply( op, key );
+                                long t = System.nanoTime( ) - start;
+                                if( state == MEASURE )
+                                    latency.record( t );
+                            }
+                        }
+                        if( state == MEASURE )
+                            ops += CHECK_EVERY;
+                    }
+                    counts[ id ] = ops;
+                    latencies[ id ] = latency;
+                }
+            } );
+            workers[ t ].start( );
+        }
+
+        long start = System.nanoTime( );
+        try
+        {
+            ready.await( );
+            Thread.sleep( o.warmupMillis );
+            start = System.nanoTime( );
+            if( p.state == WARMUP )
+                p.state = MEASURE;
+            Thread.sleep( o.durationMillis );
+        }
+        catch( BrokenBarrierException e )
+        {
+            // A worker failed; its exception is rethrown below
+        }
+        p.state = STOP;
+        long elapsed = System.nanoTime( ) - start;
+        for( Thread w : workers )
+            w.join( );
+
+        Throwable e = failure.get( );
+        if( e instanceof RuntimeException )
+            throw (RuntimeException) e;
+        if( e instanceof Error )
+            throw (Error) e;
+        if( e != null )
+            throw new IllegalStateException( "worker failed", e );
+
+        Row row = new Row( );
+        row.keys = keys;
+        row.nanos = elapsed;
+        for( long c : counts )
+            row.operations += c;
+        for( LatencyHistogram h : latencies )
+            if( h != null )
+                row.latency.merge( h );
+        return row;
+    }
+
+    private static class Phase
+    {
+        volatile int state = WARMUP;
+    }
+
+    private static Target locked( final Target target )
+    {
+        return new Target( )
+        {
+            public synchronized void apply( int op, String key )
+            {
+                target.apply( op, key );
+            }
+        };
+    }
+
+    private static void writeCsv( PrintWriter out, Options o, List<Row> rows )
+    {
+        out.println( "structure,mix,popularity,shared,threads,keys,warmup_s,duration_s,operations,ops_per_sec,"
+                + "p50_ns,p99_ns,p999_ns,max_ns" );
+        for( Row r : rows )
+            out.println( String.format( Locale.ROOT, "%s,%s,%s,%b,%d,%d,%.3f,%.3f,%d,%.1f,%s,%s,%s,%s",
+                    o.structure, o.mixSpec.replace( ',', ';' ), o.zipfian ? "zipfian" : "uniform",
+                    o.shared, o.threads, r.keys, o.warmupMillis / 1e3, r.nanos / 1e9,
+                    r.operations, r.throughput( ), latency( o, r.latency.percentile( 50 ), "" ),
+                    latency( o, r.latency.percentile( 99 ), "" ),
+                    latency( o, r.latency.percentile( 99.9 ), "" ), latency( o, r.latency.max( ), "" ) ) );
+    }
+
+    /**
+     * A latency as text, or none when latencies were not sampled.
+     */
+    private static String latency( Options o, long nanos, String none )
+    {
+        return o.sample == 0 ? none : String.valueOf( nanos );
+    }
+
+    private static void writeJson( PrintWriter out, Options o, List<Row> rows )
+    {
+        out.println( "[" );
+        for( int i = 0; i < rows.size( ); i++ )
+        {
+            Row r = rows.get( i );
+            out.print( String.format( Locale.ROOT,
+                    "  {\"structure\": \"%s\", \"mix\": \"%s\", \"popularity\": \"%s\", \"shared\": %b, "
+                    + "\"threads\": %d, \"keys\": %d, \"warmup_s\": %.3f, \"duration_s\": %.3f, "
+                    + "\"operations\": %d, \"ops_per_sec\": %.1f, "
+                    + "\"p50_ns\": %s, \"p99_ns\": %s, \"p999_ns\": %s, \"max_ns\": %s}",
+                    o.structure, o.mixSpec, o.zipfian ? "zipfian" : "uniform", o.shared,
+                    o.threads, r.keys, o.warmupMillis / 1e3, r.nanos / 1e9,
+                    r.operations, r.throughput( ), latency( o, r.latency.percentile( 50 ), "null" ),
+                    latency( o, r.latency.percentile( 99 ), "null" ),
+                    latency( o, r.latency.percentile( 99.9 ), "null" ), latency( o, r.latency.max( ), "null" ) ) );
+            out.println( i + 1 < rows.size( ) ? "," : "" );
+        }
+        out.println( "]" );
+    }
+
+    /**
+     * Parsed command line.
+     */
+    static class Options
+    {
+        String structure = "quadratic";
+        String mixSpec;         // Null for the structure's default
+        int [ ] mixOps;          // Op code per unit of weight
+        int minKeys = 1024, maxKeys = 1024;
+        int threads = 1;
+        long warmupMillis = 1000, durationMillis = 3000;
+        boolean zipfian;
+        long seed = 1;
+        int sample = SampledTimer.DEFAULT_SAMPLE;   // Time one op in this many; 0 for none
+        boolean shared;
+        boolean json;
+        String output;
+
+        int nextOp( Xoshiro256 rnd )
+        {
+            return mixOps[ rnd.nextInt( mixOps.length ) ];
+        }
+
+        static Options parse( String [ ] args )
+        {
+            Options o = new Options( );
+            for( int i = 0; i < args.length; i++ )
+            {
+                String a = args[ i ];
+                if( a.equals( "--shared" ) )
+                {
+                    o.shared = true;
+                    continue;
+                }
+                if( i + 1 == args.length )
+                    throw new IllegalArgumentException( "missing value for " + a );
+                String v = args[ ++i ];
+                switch( a )
+                {
+                  case "--structure":  o.structure = v; break;
+                  case "--mix":        o.mixSpec = v; break;
+                  case "--threads":    o.threads = positive( a, v ); break;
+                  case "--warmup":     o.warmupMillis = millis( a, v ); break;
+                  case "--duration":   o.durationMillis = millis( a, v ); break;
+                  case "--seed":       o.seed = Long.parseLong( v ); break;
+                  case "--sample":
+                    o.sample = Integer.parseInt( v );
+                    if( o.sample < 0 )
+                        throw new IllegalArgumentException( "--sample must not be negative" );
+                    break;
+                  case "--output":     o.output = v; break;
+                  case "--keys":
+                    String [ ] range = v.split( ":" );
+                    o.minKeys = positive( a, range[ 0 ] );
+                    o.maxKeys = range.length > 1 ? positive( a, range[ 1 ] ) : o.minKeys;
+                    if( o.maxKeys < o.minKeys )
+                        throw new IllegalArgumentException( "--keys: max below min" );
+                    break;
+                  case "--popularity":
+                    if( !v.equals( "uniform" ) && !v.equals( "zipfian" ) )
+                        throw new IllegalArgumentException( "--popularity: uniform or zipfian" );
+                    o.zipfian = v.equals( "zipfian" );
+                    break;
+                  case "--format":
+                    if( !v.equals( "csv" ) && !v.equals( "json" ) )
+                        throw new IllegalArgumentException( "--format: csv or json" );
+                    o.json = v.equals( "json" );
+                    break;
+                  default:
+                    throw new IllegalArgumentException( "unknown option " + a );
+                }
+            }
+
+            Targets.create( o.structure, 1 );   // Fails early on a bad name
+            if( o.mixSpec == null )
+                o.mixSpec = Targets.isHeap( o.structure )
+                        ? "insert=50,deletemin=50" : "insert=25,remove=25,contains=50";
+            o.mixOps = parseMix( o.mixSpec );
+            for( int op : o.mixOps )
+                if( !Targets.supports( o.structure, op ) )
+                    throw new IllegalArgumentException( "--mix: " + o.structure
+                            + " does not support " + opName( op ) );
+            return o;
+        }
+
+        private static int [ ] parseMix( String spec )
+        {
+            List<Integer> ops = new ArrayList<>( );
+            for( String part : spec.split( "," ) )
+            {
+                String [ ] kv = part.split( "=" );
+                if( kv.length != 2 )
+                    throw new IllegalArgumentException( "--mix: expected op=weight, got " + part );
+                int op;
+                switch( kv[ 0 ].trim( ) )
+                {
+                  case "insert":    op = Target.INSERT; break;
+                  case "remove":    op = Target.REMOVE; break;
+                  case "contains":  op = Target.CONTAINS; break;
+                  case "deletemin": op = Target.DELETE_MIN; break;
+                  default:
+                    throw new IllegalArgumentException( "--mix: unknown op " + kv[ 0 ] );
+                }
+                int weight = Integer.parseInt( kv[ 1 ].trim( ) );
+                if( weight < 0 || weight > 1000 )
+                    throw new IllegalArgumentException( "--mix: weight out of range " + weight );
+                for( int w = 0; w < weight; w++ )
+                    ops.add( op );
+            }
+            if( ops.isEmpty( ) )
+                throw new IllegalArgumentException( "--mix: all weights are zero" );
+
+            int [ ] result = new int[ ops.size( ) ];
+            for( int i = 0; i < result.length; i++ )
+                result[ i ] = ops.get( i );
+            return result;
+        }
+
+        private static String opName( int op )
+        {
+            switch( op )
+            {
+              case Target.INSERT:     return "insert";
+              case Target.REMOVE:     return "remove";
+              case Target.CONTAINS:   return "contains";
+              case Target.DELETE_MIN: return "deletemin";
+              default:                return "operation " + op;
+            }
+        }
+
+        private static int positive( String option, String v )
+        {
+            int n = Integer.parseInt( v );
+            if( n < 1 )
+                throw new IllegalArgumentException( option + " must be positive" );
+            return n;
+        }
+
+        private static long millis( String option, String v )
+        {
+            double s = Double.parseDouble( v );
+            if( s < 0 )
+                throw new IllegalArgumentException( option + " must not be negative" );
+            return (long) ( s * 1000 );
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package bench;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Log-bucketed histogram of latencies in nanoseconds, in the manner
+ * of HdrHistogram. Values below 32 have a bucket each; above that,
+ * every power of two is split into 32 buckets, so a value is known
+ * to within about 3%. The buckets are one fixed array covering every
+ * long, so record allocates nothing and costs a few instructions.
+ * <p>
+ * Not thread-safe: give each thread its own histogram and merge
+ * them when done. Percentiles report the highest value in their
+ * bucket; max is exact.
+ */
+public class LatencyHistogram
+{
+    public LatencyHistogram( )
+    {
+        counts = new long[ BUCKETS ];
+    }
+
+    /**
+     * Record one latency; negative values count as 0.
+     */
+    public void record( long nanos )
+    {
+        if( nanos < 0 )
+            nanos = 0;
+        counts[ indexOf( nanos ) ]++;
+        total++;
+        if( nanos > max )
+            max = nanos;
+    }
+
+    /**
+     * Add every value recorded in other to this histogram.
+     */
+    public void merge( LatencyHistogram other )
+    {
+        for( int i = 0; i < BUCKETS; i++ )
+            counts[ i ] += other.counts[ i ];
+        total += other.total;
+        max = Math.max( max, other.max );
+    }
+
+    /**
+     * Forget every value recorded.
+     */
+    public void reset( )
+    {
+        Arrays.fill( counts, 0 );
+        total = 0;
+        max = 0;
+    }
+
+    /**
+     * @return the number of values recorded.
+     */
+    public long count( )
+    {
+        return total;
+    }
+
+    /**
+     * @return the largest value recorded, or 0 if none.
+     */
+    public long max( )
+    {
+        return max;
+    }
+
+    /**
+     * Return the value at or below which p percent of values fall.
+     * @param p the percentile, in [0, 100].
+     * @return the highest value in that value's bucket, at most
+     * max( ); 0 if nothing has been recorded.
+     */
+    public long percentile( double p )
+    {
+        if( total == 0 )
+            return 0;
+
+        long rank = Math.max( 1, (long) Math.ceil( p / 100 * total ) );
+        long seen = 0;
+        for( int i = 0; i < BUCKETS; i++ )
+        {
+            seen += counts[ i ];
+            if( seen >= rank )
+                return Math.min( highestInBucket( i ), max );
+        }
+        return max;
+    }
+
+    /**
+     * @return p50, p99, p99.9 and max, in nanoseconds.
+     */
+    public String toString( )
+    {
+        return String.format( Locale.ROOT, "p50 %d ns, p99 %d ns, p99.9 %d ns, max %d ns",
+                percentile( 50 ), percentile( 99 ), percentile( 99.9 ), max );
+    }
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB = 1 << SUB_BITS;                 // Buckets per power of two
+    private static final int BUCKETS = ( 64 - SUB_BITS ) * SUB;
+
+    private final long [ ] counts;
+    private long total;
+    private long max;
+
+    private static int indexOf( long v )
+    {
+        if( v < SUB )
+            return (int) v;
+        int e = 63 - Long.numberOfLeadingZeros( v );    // At least SUB_BITS
+        return ( e - SUB_BITS + 1 ) * SUB + (int) ( v >>> e - SUB_BITS ) - SUB;
+    }
+
+    private static long highestInBucket( int i )
+    {
+        if( i < SUB )
+            return i;
+        int e = i / SUB + SUB_BITS - 1;
+        long low = (long) ( SUB + i % SUB ) << e - SUB_BITS;
+        return low + ( 1L << e - SUB_BITS ) - 1;
+    }
+
+    // Checks buckets against exact percentiles
+    public static void main( String [ ] args )
+    {
+        Random rnd = new Random( 1 );
+        int n = 1000000;
+        long [ ] values = new long[ n ];
+        LatencyHistogram a = new LatencyHistogram( ), b = new LatencyHistogram( );
+        for( int i = 0; i < n; i++ )
+        {
+            values[ i ] = (long) Math.exp( rnd.nextDouble( ) * 25 );
+            ( i % 2 == 0 ? a : b ).record( values[ i ] );
+        }
+        a.merge( b );
+        Arrays.sort( values );
+
+        for( double p : new double[ ] { 0, 50, 90, 99, 99.9, 100 } )
+        {
+            long exact = values[ (int) Math.max( 0, Math.ceil( p / 100 * n ) - 1 ) ];
+            long approx = a.percentile( p );
+            if( approx < exact || approx > exact + exact / SUB + 1 )
+                System.out.println( "Oops! p" + p + " " + approx + " vs " + exact );
+        }
+        if( a.count( ) != n || a.max( ) != values[ n - 1 ] )
+            System.out.println( "Oops! count or max" );
+        if( indexOf( Long.MAX_VALUE ) != BUCKETS - 1 || highestInBucket( BUCKETS - 1 ) != Long.MAX_VALUE )
+            System.out.println( "Oops! top bucket" );
+        System.out.println( a );
+    }
+}
@@ -0,0 +1,52 @@
+package bench;
+
+import trace.Target;
+
+/**
+ * Records operation latencies by timing one operation in every
+ * sample, as BenchmarkDriver --sample does; the others run untimed,
+ * so reading the clock costs little next to the operations
+ * themselves. Used by the hash table test programs, which keep
+ * their untimed loops for the throughput totals.
+ */
+public final class SampledTimer
+{
+    /**
+     * Operations per timed one, unless the caller chooses otherwise.
+     */
+    public static final int DEFAULT_SAMPLE = 16;
+
+    /**
+     * Apply an operation to each key in turn, recording the time
+     * of one call in every sample. With fewer keys than sample,
+     * the last call is timed, so every run records something.
+     * @param target the structure.
+     * @param op the operation, one of the Target codes.
+     * @param keys the keys, in order.
+     * @param sample time one operation in this many; at least 1.
+     * @param hist the histogram to record into.
+     */
+    public static void run( Target target, int op, String [ ] keys, int sample, LatencyHistogram hist )
+    {
+        if( sample < 1 )
+            throw new IllegalArgumentException( "sample must be positive: " + sample );
+
+        int untilSample = Math.min( sample, keys.length );
+        for( String key : keys )
+        {
+            if( --untilSample != 0 )
+                target.apply( op, key );
+            else
+            {
+                untilSample = sample;
+                long start = System.nanoTime( );
+                target.apply( op, key );
+                hist.record( System.nanoTime( ) - start );
+            }
+        }
+    }
+
+    private SampledTimer( )
+    {
+    }
+}
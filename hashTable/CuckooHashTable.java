@@ -4,14 +4,23 @@ import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.*;
 
 import javax.swing.JComponent;
 import javax.swing.JFrame;
 
 
+import bench.LatencyHistogram;
+import bench.SampledTimer;
+import serialization.*;
 import stringgenerator.*;
 import gui.*;
+import trace.Target;
+import trace.Targets;
 //Cuckoo Hash table class
 //
 //CONSTRUCTION: a hashing function family and
@@ -23,6 +32,10 @@ import gui.*;
 //bool contains( x )     --> Return true if x is present
 //void makeEmpty( )      --> Remove all items
 //int  size( )           --> Return number of items
+//void trimToSize( )     --> Shrink the table to fit its items
+//void setMinLoad( l )   --> Set the low-water mark for shrinking
+//void writeTo( out, c ) --> Write the items to a channel
+//readFrom( in, c, hf )  --> Static; read a table written by writeTo
 
 
 /**
@@ -47,7 +60,8 @@ public class CuckooHashTable<AnyType>
   */
  public CuckooHashTable( HashFamily<? super AnyType> hf, int size )
  {
-     allocateArray( nextPrime( size ) );
+     initialLength = nextPrime( size );
+     allocateArray( initialLength );
      doClear( );
      hashFunctions = hf;
      numHashFunctions = hf.getNumberOfFunctions( );
@@ -56,6 +70,8 @@ public class CuckooHashTable<AnyType>
  private Random r = new Random( );
  
  private static final double MAX_LOAD = 0.40;
+ private static final double TRIM_LOAD = MAX_LOAD / 2;  // target of trimToSize
+ private static final double DEFAULT_MIN_LOAD = MAX_LOAD / 8;
  private static final int ALLOWED_REHASHES = 1;
  
  private int rehashes = 0;
@@ -166,6 +182,39 @@ public class CuckooHashTable<AnyType>
      rehash( (int) ( array.length / MAX_LOAD ) );
  }
  
+ /**
+  * Shrink the table so that its load is twice the low-water mark.
+  * Halfway between the two marks, so it takes a large change in size
+  * to trigger the next expand or shrink.
+  */
+ private void shrink( )
+ {
+     rehash( Math.max( initialLength, (int) ( currentSize / ( 2 * minLoad ) ) ) );
+ }
+ 
+ /**
+  * Shrink the table towards TRIM_LOAD, so that inserts after a
+  * trim do not rehash straight away. A table already at or above
+  * that load keeps its length; trimming never grows it.
+  */
+ public void trimToSize( )
+ {
+     rehash( Math.min( array.length, (int) ( currentSize / TRIM_LOAD ) + 1 ) );
+ }
+ 
+ /**
+  * Set the low-water mark below which remove shrinks the table.
+  * The table never shrinks automatically below its initial length.
+  * @param minLoad the load factor, 0 to disable shrinking.
+  * @throws IllegalArgumentException if minLoad is not in [0, MAX_LOAD/4].
+  */
+ public void setMinLoad( double minLoad )
+ {
+     if( minLoad < 0 || minLoad > MAX_LOAD / 4 )
+         throw new IllegalArgumentException( "minLoad out of range: " + minLoad );
+     this.minLoad = minLoad;
+ }
+ 
  private void rehash( )
  {
      //System.out.println( "NEW HASH FUNCTIONS " + array.length );
@@ -237,6 +286,9 @@ public class CuckooHashTable<AnyType>
      {
          array[ pos ] = null;
          currentSize--;
+         
+         if( currentSize < array.length * minLoad && array.length > initialLength )
+             shrink( );
      }
      
      return pos != -1;
@@ -254,9 +306,12 @@ public class CuckooHashTable<AnyType>
  
  /**
   * Make the hash table logically empty.
+  * The table goes back to its initial length.
   */
  public void makeEmpty( )
  {
+     if( array.length > initialLength )
+         allocateArray( initialLength );
      doClear( );
  }
 
@@ -273,6 +328,8 @@ public class CuckooHashTable<AnyType>
 
  private final HashFamily<? super AnyType> hashFunctions;
  private final int numHashFunctions;
+ private final int initialLength;      // Floor for automatic shrinking
+ private double minLoad = DEFAULT_MIN_LOAD;
  private AnyType [ ] array; // The array of elements
  private int currentSize;              // The number of occupied cells
 
@@ -323,6 +380,54 @@ public class CuckooHashTable<AnyType>
  }
 
  
+/**
+ * Write the table to a channel in the binary stream format.
+ * @param out the channel to write to; it is not closed.
+ * @param codec the codec for the items.
+ */
+public void writeTo( WritableByteChannel out, ElementCodec<? super AnyType> codec ) throws IOException
+{
+    ChunkedWriter writer = new ChunkedWriter( out );
+
+    writer.writeHeader( StreamFormat.CUCKOO_HASH_TABLE );
+    writer.writeInt( array.length );
+    writer.writeInt( currentSize );
+    for( AnyType item : array )
+        if( item != null )
+            codec.encode( item, writer );
+    writer.flush( );
+}
+
+/**
+ * Read a table written by writeTo.
+ * The items are placed straight into a table of the saved length,
+ * skipping the duplicate check and load test of insert.
+ * @param in the channel to read from; it is not closed.
+ * @param codec the codec for the items.
+ * @param hf the hash family.
+ * @return the table.
+ */
+public static <AnyType> CuckooHashTable<AnyType> readFrom( ReadableByteChannel in,
+        ElementCodec<AnyType> codec, HashFamily<? super AnyType> hf ) throws IOException
+{
+    ChunkedReader reader = new ChunkedReader( in );
+
+    reader.readHeader( StreamFormat.CUCKOO_HASH_TABLE );
+    int length = reader.readInt( );
+    int count = reader.readInt( );
+    if( length < 1 || length > StreamFormat.MAX_TABLE_LENGTH )
+        throw new StreamCorruptedException( "bad table length " + length );
+    if( count < 0 || count > length * MAX_LOAD + 1 )   // insert may pass MAX_LOAD by one
+        throw new StreamCorruptedException( "item count " + count + " out of range for length " + length );
+
+    CuckooHashTable<AnyType> table = new CuckooHashTable<>( hf );
+    table.allocateArray( nextPrime( Math.max( length, (int) ( count / MAX_LOAD ) + 1 ) ) );
+    for( int i = 0; i < count; i++ )
+        table.insertHelper1( codec.decode( reader ) );
+
+    return table;
+}
+
 public static long timeforinsert(CuckooHashTable<? extends String> H, String[] stringstore)
 {
 	CuckooHashTable<String> h_temp = (CuckooHashTable<String>) H;
@@ -350,6 +455,7 @@ public static long timeforremove(CuckooHashTable<? extends String> H, String[] s
 	
 	return System.nanoTime() - start_time;
 }
+
 //GUi function
 //public static class LinesComponent extends JComponent
 //{
@@ -423,6 +529,7 @@ public static long timeforremove(CuckooHashTable<? extends String> H, String[] s
 	  string_temp[1] = rng.RandomString();
 	  timeforinsert(H, string_temp);
 	  timeforremove(H, string_temp);
+	  Target target = Targets.of(H);   // For the sampled latency passes
 	  long datax1[] = new long[14], datax2[] = new long[14], max1=0, max2=0;
 	  datax1[0] = 0;
 	  datax2[0] = 0;
@@ -432,6 +539,7 @@ public static long timeforremove(CuckooHashTable<? extends String> H, String[] s
 		 int range = (int) Math.pow(2, i);      
 		 String stringstore[] = new String[range];		 
 		 long total1=0, total2=0;
+		 LatencyHistogram insertLatency = new LatencyHistogram(), removeLatency = new LatencyHistogram();
 		 for (int h=0; h<TIMES; h++)
 		 {			 
 			 for( int j=0; j < range; j++)
@@ -440,6 +548,8 @@ public static long timeforremove(CuckooHashTable<? extends String> H, String[] s
 			 }	     
 			 total1 += timeforinsert(H, stringstore);  	     
 			 total2 += timeforremove(H, stringstore);
+			 SampledTimer.run(target, Target.INSERT, stringstore, SampledTimer.DEFAULT_SAMPLE, insertLatency);
+			 SampledTimer.run(target, Target.REMOVE, stringstore, SampledTimer.DEFAULT_SAMPLE, removeLatency);
 		 }
 	    System.out.println( "The time for " + range + " insert cost is :" + total1/TIMES);
 	    datax1[i+1] = total1/TIMES;
@@ -448,6 +558,8 @@ public static long timeforremove(CuckooHashTable<? extends String> H, String[] s
 	    	max1 = datax1[i+1];
 	    }
 	    System.out.println( "The time for " + range + " remove cost is :" + total2/TIMES);
+	    System.out.println( "  insert latency: " + insertLatency);
+	    System.out.println( "  remove latency: " + removeLatency);
 	    datax2[i+1] = total2/TIMES;
 	    if (datax2[i+1] > max2)
 	    {
@@ -4,29 +4,65 @@ import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.*;
 
 import javax.swing.JComponent;
 import javax.swing.JFrame;
 
 
+import bench.LatencyHistogram;
+import bench.SampledTimer;
+import serialization.*;
 import stringgenerator.*;
 import gui.*;
+import trace.Target;
+import trace.Targets;
 
 //QuadraticProbing Hash table class
 //
-//CONSTRUCTION: an approximate initial size or default of 101
+//CONSTRUCTION: an optional hashing function family,
+//            an approximate initial size or default of 101,
+//            optionally in single-writer/many-reader mode
 //
 //******************PUBLIC OPERATIONS*********************
 //bool insert( x )       --> Insert x
 //bool remove( x )       --> Remove x
 //bool contains( x )     --> Return true if x is present
 //void makeEmpty( )      --> Remove all items
+//void trimToSize( )     --> Shrink the table to fit its items
+//void setMinLoad( l )   --> Set the low-water mark for shrinking
+//void writeTo( out, c ) --> Write the items to a channel
+//readFrom( in, c, hf )  --> Static; read a table written by writeTo
+//******************CONCURRENCY***************************
+//In single-writer mode one thread may call insert, remove
+//and makeEmpty while any number of threads call contains,
+//size and capacity without locking.
+//******************HASHING*******************************
+//Without a hash family, x.hashCode( ) is used directly.
+//With one, function 0 of the family is used, and new
+//functions are drawn (and the table rebuilt) whenever an
+//insert probes more than MAX_PROBES cells.
 
 
 /**
 * Probing table implementation of hash tables.
 * Note that all "matching" is based on the equals method.
+* <p>
+* Entries are immutable and the table array is only ever
+* replaced, never resized or cleared in place, so a reader that has
+* loaded the array reference always sees a consistent table. In
+* single-writer mode every slot store is followed by a write of the
+* volatile published reference, which releases the new entry to
+* readers; readers load that reference once and probe a bounded
+* number of slots, so they never block or spin. Otherwise the table
+* is reached through a plain field, and no operation pays for a
+* volatile access. Because readers may still be probing an older
+* table, the hash functions are never regenerated in single-writer
+* mode.
 * @author Mark Allen Weiss
 */
 public class QuadraticProbingHashTable<AnyType>
@@ -45,8 +81,44 @@ public class QuadraticProbingHashTable<AnyType>
   */
  public QuadraticProbingHashTable( int size )
  {
-     allocateArray( size );
-     doClear( );
+     this( size, false );
+ }
+
+ /**
+  * Construct the hash table.
+  * @param hf the hash family, for seeded hashing.
+  * @param size the approximate initial size.
+  */
+ public QuadraticProbingHashTable( HashFamily<? super AnyType> hf, int size )
+ {
+     this( hf, size, false );
+ }
+
+ /**
+  * Construct the hash table.
+  * @param size the approximate initial size.
+  * @param singleWriter true if one writer thread will run
+  *        concurrently with lock-free readers.
+  */
+ public QuadraticProbingHashTable( int size, boolean singleWriter )
+ {
+     this( null, size, singleWriter );
+ }
+
+ /**
+  * Construct the hash table.
+  * @param hf the hash family, or null to use hashCode.
+  * @param size the approximate initial size.
+  * @param singleWriter true if one writer thread will run
+  *        concurrently with lock-free readers.
+  */
+ public QuadraticProbingHashTable( HashFamily<? super AnyType> hf, int size, boolean singleWriter )
+ {
+     this.hashFunctions = hf;
+     this.singleWriter = singleWriter;
+     array = allocateArray( size );
+     initialLength = array.length;
+     publish( array );
  }
 
  /**
@@ -56,17 +128,22 @@ public class QuadraticProbingHashTable<AnyType>
   */
  public boolean insert( AnyType x )
  {
+     HashEntry<AnyType> [ ] arr = array;
+
          // Insert x as active
-     int currentPos = findPos( x );
-     if( isActive( currentPos ) )
+     int currentPos = findPos( x, arr );
+     if( isActive( arr, currentPos ) )
          return false;
 
-     array[ currentPos ] = new HashEntry<>( x, true );
+     arr[ currentPos ] = new HashEntry<>( x, true );
      theSize++;
+     publish( arr );
      
          // Rehash; see Section 5.5
-     if( ++occupied > array.length / 2 )
+     if( ++occupied > arr.length / 2 )
          rehash( );
+     else if( probeLength > MAX_PROBES && canReseed( ) )
+         reseed( );
      
      return true;
  }
@@ -75,54 +152,150 @@ public class QuadraticProbingHashTable<AnyType>
   * Expand the hash table.
   */
  private void rehash( )
+ {
+     reseeds = 0;
+     rehash( 2 * array.length );
+ }
+
+ /**
+  * Shrink the table so that its load is twice the low-water mark.
+  * Halfway between the two marks, so it takes a large change in size
+  * to trigger the next expand or shrink.
+  */
+ private void shrink( )
+ {
+     rehash( Math.max( initialLength, (int) ( theSize / ( 2 * minLoad ) ) ) );
+ }
+
+ /**
+  * Shrink the table towards TRIM_LOAD, so that inserts after a
+  * trim do not rehash straight away. A table already at or above
+  * that load keeps its length; trimming never grows it. Also
+  * drops deleted entries.
+  */
+ public void trimToSize( )
+ {
+     rehash( Math.min( array.length, (int) ( theSize / TRIM_LOAD ) + 1 ) );
+ }
+
+ /**
+  * Set the low-water mark below which remove shrinks the table.
+  * The table never shrinks automatically below its initial length.
+  * @param minLoad the load factor, 0 to disable shrinking.
+  * @throws IllegalArgumentException if minLoad is not in [0, 1/8].
+  */
+ public void setMinLoad( double minLoad )
+ {
+     if( minLoad < 0 || minLoad > MAX_LOAD / 4 )
+         throw new IllegalArgumentException( "minLoad out of range: " + minLoad );
+     this.minLoad = minLoad;
+ }
+
+ /**
+  * Return true if the hash functions may be regenerated now.
+  */
+ private boolean canReseed( )
+ {
+     return hashFunctions != null && !singleWriter && reseeds < ALLOWED_RESEEDS;
+ }
+
+ /**
+  * Draw new hash functions and rebuild the table at the same size.
+  * Breaks up long probe sequences caused by adversarial keys.
+  */
+ private void reseed( )
+ {
+     reseeds++;
+     hashFunctions.generateNewFunctions( );
+     rehash( array.length );
+ }
+
+ /**
+  * Rebuild the table with the given length.
+  * The new table is filled completely before it is published,
+  * so readers see either the old table or the new one.
+  * @param newLength the approximate new length.
+  */
+ private void rehash( int newLength )
  {
      HashEntry<AnyType> [ ] oldArray = array;
 
-         // Create a new double-sized, empty table
-     allocateArray( 2 * oldArray.length );
-     occupied = 0;
-     theSize = 0;
+         // Create a new empty table
+     HashEntry<AnyType> [ ] newArray = allocateArray( newLength );
 
-         // Copy table over
+         // Copy table over; active entries are immutable and can be shared
      for( HashEntry<AnyType> entry : oldArray )
          if( entry != null && entry.isActive )
-             insert( entry.element );
+             newArray[ findPos( entry.element, newArray ) ] = entry;
+
+     occupied = theSize;
+     array = newArray;
+     publish( newArray );
  }
 
  /**
   * Method that performs quadratic probing resolution.
+  * Only called by the writer. Records the number of probes
+  * made in probeLength.
   * @param x the item to search for.
+  * @param arr the table to probe.
   * @return the position where the search terminates.
   */
- private int findPos( AnyType x )
+ private int findPos( AnyType x, HashEntry<AnyType> [ ] arr )
  {
      int offset = 1;
-     int currentPos = myhash( x );
+     int currentPos = myhash( x, arr.length );
      
-     while( array[ currentPos ] != null &&
-             !array[ currentPos ].element.equals( x ) )
+     while( arr[ currentPos ] != null &&
+             !arr[ currentPos ].element.equals( x ) )
      {
          currentPos += offset;  // Compute ith probe
          offset += 2;
-         if( currentPos >= array.length )
-             currentPos -= array.length;
+         if( currentPos >= arr.length )
+             currentPos -= arr.length;
      }
      
+     probeLength = offset / 2;
      return currentPos;
  }
 
+ /**
+  * Return the most probes needed to find any item.
+  * Only called by the writer; used by tests.
+  */
+ int longestProbe( )
+ {
+     HashEntry<AnyType> [ ] arr = array;
+     int longest = 0;
+     for( HashEntry<AnyType> e : arr )
+         if( e != null && e.isActive )
+         {
+             findPos( e.element, arr );
+             longest = Math.max( longest, probeLength );
+         }
+     return longest;
+ }
+
  /**
   * Remove from the hash table.
+  * The slot is overwritten with a deleted entry rather than
+  * mutating the live one.
   * @param x the item to remove.
   * @return true if item removed
   */
  public boolean remove( AnyType x )
  {
-     int currentPos = findPos( x );
-     if( isActive( currentPos ) )
+     HashEntry<AnyType> [ ] arr = array;
+
+     int currentPos = findPos( x, arr );
+     if( isActive( arr, currentPos ) )
      {
-         array[ currentPos ].isActive = false;
+         arr[ currentPos ] = new HashEntry<>( arr[ currentPos ].element, false );
          theSize--;
+         publish( arr );
+         
+         if( theSize < arr.length * minLoad && arr.length > initialLength )
+             shrink( );
          return true;
      }
      else
@@ -131,6 +304,7 @@ public class QuadraticProbingHashTable<AnyType>
  
  /**
   * Get current size.
+  * May be slightly stale when read concurrently with the writer.
   * @return the size.
   */
  public int size( )
@@ -144,60 +318,108 @@ public class QuadraticProbingHashTable<AnyType>
   */
  public int capacity( )
  {
-     return array.length;
+     return readerTable( ).length;
  }
 
  /**
   * Find an item in the hash table.
+  * Safe to call concurrently with a single writer: the table
+  * reference and each slot are read exactly once, and at most
+  * one probe per slot is made.
   * @param x the item to search for.
   * @return the matching item.
   */
  public boolean contains( AnyType x )
  {
-     int currentPos = findPos( x );
-     return isActive( currentPos );
+     HashEntry<AnyType> [ ] arr = readerTable( );
+
+     int offset = 1;
+     int currentPos = myhash( x, arr.length );
+
+     for( int probes = 0; probes < arr.length; probes++ )
+     {
+         HashEntry<AnyType> entry = arr[ currentPos ];
+         if( entry == null )
+             return false;
+         if( entry.element.equals( x ) )
+             return entry.isActive;
+
+         currentPos += offset;  // Compute ith probe
+         offset += 2;
+         if( currentPos >= arr.length )
+             currentPos -= arr.length;
+     }
+
+     return false;
  }
 
  /**
   * Return true if currentPos exists and is active.
+  * @param arr the table probed by findPos.
   * @param currentPos the result of a call to findPos.
   * @return true if currentPos is active.
   */
- private boolean isActive( int currentPos )
+ private boolean isActive( HashEntry<AnyType> [ ] arr, int currentPos )
  {
-     return array[ currentPos ] != null && array[ currentPos ].isActive;
+     return arr[ currentPos ] != null && arr[ currentPos ].isActive;
  }
 
  /**
   * Make the hash table logically empty.
+  * The table goes back to its initial length.
   */
  public void makeEmpty( )
  {
-     doClear( );
+     HashEntry<AnyType> [ ] arr = array;
+
+     occupied = 0;
+     theSize = 0;
+     if( arr.length > initialLength || singleWriter )
+     {
+             // Readers may be probing arr; give them a fresh table
+         array = allocateArray( initialLength );
+         publish( array );
+     }
+     else
+         Arrays.fill( arr, null );
  }
 
- private void doClear( )
+ /**
+  * Release the table, and any preceding slot stores, to readers
+  * in single-writer mode. The volatile write orders them before
+  * any later volatile read of published.
+  * @param arr the current table.
+  */
+ private void publish( HashEntry<AnyType> [ ] arr )
  {
-     occupied = 0;
-     for( int i = 0; i < array.length; i++ )
-         array[ i ] = null;
+     if( singleWriter )
+         published = arr;
+ }
+
+ /**
+  * Return the table for a reader: the published reference in
+  * single-writer mode, read once by the caller, else the plain one.
+  */
+ private HashEntry<AnyType> [ ] readerTable( )
+ {
+     return singleWriter ? published : array;
  }
  
- private int myhash( AnyType x )
+ private int myhash( AnyType x, int tableSize )
  {
-     int hashVal = x.hashCode( );
+     int hashVal = hashFunctions == null ? x.hashCode( ) : hashFunctions.hash( x, 0 );
 
-     hashVal %= array.length;
+     hashVal %= tableSize;
      if( hashVal < 0 )
-         hashVal += array.length;
+         hashVal += tableSize;
 
      return hashVal;
  }
  
  private static class HashEntry<AnyType>
  {
-     public AnyType  element;   // the element
-     public boolean isActive;  // false if marked deleted
+     public final AnyType element;   // the element
+     public final boolean isActive;  // false if marked deleted
 
      public HashEntry( AnyType e )
      {
@@ -212,18 +434,31 @@ public class QuadraticProbingHashTable<AnyType>
  }
 
  private static final int DEFAULT_TABLE_SIZE = 101;
-
- private HashEntry<AnyType> [ ] array; // The array of elements
- private int occupied;                 // The number of occupied cells
- private int theSize;                  // Current size
+ private static final int MAX_PROBES = 32;
+ private static final double MAX_LOAD = 0.5;
+ private static final double TRIM_LOAD = MAX_LOAD / 2;  // target of trimToSize
+ private static final double DEFAULT_MIN_LOAD = MAX_LOAD / 8;
+ private static final int ALLOWED_RESEEDS = 2;  // per table size
+
+ private final HashFamily<? super AnyType> hashFunctions;
+ private final boolean singleWriter;            // true if readers run concurrently
+ private final int initialLength;               // Floor for automatic shrinking
+ private double minLoad = DEFAULT_MIN_LOAD;
+ private HashEntry<AnyType> [ ] array;          // The array of elements
+ private volatile HashEntry<AnyType> [ ] published; // array, for readers in single-writer mode
+ private int occupied;                          // The number of occupied cells
+ private int theSize;                           // Current size
+ private int probeLength;                       // Probes made by the last findPos
+ private int reseeds;                           // Reseeds since the last expansion
 
  /**
   * Internal method to allocate array.
   * @param arraySize the size of the array.
+  * @return the new, empty array.
   */
- private void allocateArray( int arraySize )
+ private HashEntry<AnyType> [ ] allocateArray( int arraySize )
  {
-     array = new HashEntry[ nextPrime( arraySize ) ];
+     return new HashEntry[ nextPrime( arraySize ) ];
  }
 
  /**
@@ -263,6 +498,63 @@ public class QuadraticProbingHashTable<AnyType>
      return true;
  }
 
+ /**
+  * Write the table to a channel in the binary stream format.
+  * Only the active items are written, in table order.
+  * Must be called by the writer thread.
+  * @param out the channel to write to; it is not closed.
+  * @param codec the codec for the items.
+  */
+ public void writeTo( WritableByteChannel out, ElementCodec<? super AnyType> codec ) throws IOException
+ {
+     HashEntry<AnyType> [ ] arr = array;
+     ChunkedWriter writer = new ChunkedWriter( out );
+
+     writer.writeHeader( StreamFormat.QUADRATIC_PROBING_HASH_TABLE );
+     writer.writeInt( arr.length );
+     writer.writeInt( theSize );
+     for( HashEntry<AnyType> entry : arr )
+         if( entry != null && entry.isActive )
+             codec.encode( entry.element, writer );
+     writer.flush( );
+ }
+
+ /**
+  * Read a table written by writeTo.
+  * The items go straight into a table of the saved length,
+  * without the duplicate checks and rehashing of insert.
+  * @param in the channel to read from; it is not closed.
+  * @param codec the codec for the items.
+  * @param hf the hash family, or null to use hashCode.
+  * @return the table.
+  */
+ public static <AnyType> QuadraticProbingHashTable<AnyType> readFrom( ReadableByteChannel in,
+         ElementCodec<AnyType> codec, HashFamily<? super AnyType> hf ) throws IOException
+ {
+     ChunkedReader reader = new ChunkedReader( in );
+
+     reader.readHeader( StreamFormat.QUADRATIC_PROBING_HASH_TABLE );
+     int length = reader.readInt( );
+     int count = reader.readInt( );
+     if( length < 1 || length > StreamFormat.MAX_TABLE_LENGTH )
+         throw new StreamCorruptedException( "bad table length " + length );
+     if( count < 0 || count > length * MAX_LOAD )
+         throw new StreamCorruptedException( "item count " + count + " out of range for length " + length );
+
+     QuadraticProbingHashTable<AnyType> table = new QuadraticProbingHashTable<>( hf, DEFAULT_TABLE_SIZE );
+     HashEntry<AnyType> [ ] arr = table.allocateArray( Math.max( length, 2 * count + 2 ) );
+     for( int i = 0; i < count; i++ )
+     {
+         AnyType x = codec.decode( reader );
+         arr[ table.findPos( x, arr ) ] = new HashEntry<>( x, true );
+     }
+
+     table.theSize = count;
+     table.occupied = count;
+     table.array = arr;
+     return table;
+ }
+
  public static long timeforinsert(QuadraticProbingHashTable<? extends String> H, String[] stringstore)
  {
  	QuadraticProbingHashTable<String> h_temp = (QuadraticProbingHashTable<String>) H;
@@ -290,6 +582,7 @@ public class QuadraticProbingHashTable<AnyType>
  	
  	return System.nanoTime() - start_time;
  }
+
  
 //Simple main
 public static void main( String [ ] args )
@@ -317,6 +610,7 @@ public static void main( String [ ] args )
 	  string_temp[1] = rng.RandomString();
 	  timeforinsert(H, string_temp);
 	  timeforremove(H, string_temp);
+	  Target target = Targets.of(H);   // For the sampled latency passes
 	  long datax1[] = new long[14], datax2[] = new long[14], max1=0, max2=0;
 	  datax1[0] = 0;
 	  datax2[0] = 0;
@@ -326,6 +620,7 @@ public static void main( String [ ] args )
 		 int range = (int) Math.pow(2, i);      
 		 String stringstore[] = new String[range];		 
 		 long total1=0, total2=0;
+		 LatencyHistogram insertLatency = new LatencyHistogram(), removeLatency = new LatencyHistogram();
 		 for (int h=0; h<TIMES; h++)
 		 {			 
 			 for( int j=0; j < range; j++)
@@ -334,6 +629,8 @@ public static void main( String [ ] args )
 			 }	     
 			 total1 += timeforinsert(H, stringstore);  	     
 			 total2 += timeforremove(H, stringstore);
+			 SampledTimer.run(target, Target.INSERT, stringstore, SampledTimer.DEFAULT_SAMPLE, insertLatency);
+			 SampledTimer.run(target, Target.REMOVE, stringstore, SampledTimer.DEFAULT_SAMPLE, removeLatency);
 		 }
 	    System.out.println( "The time for " + range + " insert cost is :" + total1/TIMES);
 	    datax1[i+1] = total1/TIMES;
@@ -342,6 +639,8 @@ public static void main( String [ ] args )
 	    	max1 = datax1[i+1];
 	    }
 	    System.out.println( "The time for " + range + " remove cost is :" + total2/TIMES);
+	    System.out.println( "  insert latency: " + insertLatency);
+	    System.out.println( "  remove latency: " + removeLatency);
 	    datax2[i+1] = total2/TIMES;
 	    if (datax2[i+1] > max2)
 	    {
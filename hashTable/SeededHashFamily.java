@@ -0,0 +1,193 @@
+package hashTable;
+
+import java.security.SecureRandom;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Hash family for any type, built from per-function random seeds
+ * passed through a strong avalanche mix.
+ * Strings are hashed over their characters with the key mixed into
+ * every step through a multiply and an xor-shift, so that which
+ * strings collide depends on the key. Keys crafted to share a
+ * hashCode (such as combinations of "Aa" and "BB"), or to collide
+ * under every polynomial hash (Thue-Morse strings), are spread
+ * afresh by every new set of functions. Other types are hashed from hashCode, which spreads
+ * keys crafted to collide modulo the table size; keys of those
+ * types with identical hashCodes still collide.
+ */
+public class SeededHashFamily implements HashFamily<Object>
+{
+    private final int [ ] SEEDS;
+    private final int [ ] KEYS;
+    private final SecureRandom r = new SecureRandom( );
+    
+    public SeededHashFamily( int d )
+    {
+        SEEDS = new int [ d ];
+        KEYS = new int [ d ];
+        generateNewFunctions( );
+    }
+
+    public int getNumberOfFunctions( )
+    {
+        return SEEDS.length;
+    }
+    
+    public void generateNewFunctions( )
+    {
+        for( int i = 0; i < SEEDS.length; i++ )
+        {
+            SEEDS[ i ] = r.nextInt( );
+            KEYS[ i ] = r.nextInt( );
+        }
+    }
+    
+    public int hash( Object x, int which )
+    {
+        if( x instanceof String )
+            return hash( (String) x, SEEDS[ which ], KEYS[ which ] );
+        return mix( x.hashCode( ) ^ SEEDS[ which ] );
+    }
+
+    /**
+     * Keyed hash over the characters of a string.
+     * A plain polynomial hash is linear, so strings that collide
+     * under it collide for every seed; here each step adds the key
+     * between a multiply and an xor-shift, whose carries make the
+     * step non-linear in both the state and the key.
+     * @param s the string to hash.
+     * @param seed the starting value.
+     * @param key the value mixed into every step.
+     * @return the mixed hash.
+     */
+    private static int hash( CharSequence s, int seed, int key )
+    {
+        int hashVal = seed;
+
+        for( int i = 0; i < s.length( ); i++ )
+        {
+            hashVal = ( hashVal ^ s.charAt( i ) ) * 0x9e3779b1 + key;
+            hashVal ^= hashVal >>> 15;
+        }
+
+        return mix( hashVal ^ s.length( ) );
+    }
+
+    /**
+     * The 32-bit finalizer from MurmurHash3.
+     * Every input bit affects every output bit.
+     * @param h the value to mix.
+     * @return the mixed value.
+     */
+    public static int mix( int h )
+    {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        
+        return h;
+    }
+
+    /**
+     * Build 2^n distinct strings that all share one hashCode,
+     * from n blocks that are each "Aa" or "BB".
+     */
+    private static String [ ] collidingKeys( int n )
+    {
+        return blockKeys( n, "Aa", "BB" );
+    }
+
+    /**
+     * Build 2^n distinct strings from n blocks that are each the
+     * Thue-Morse word of length 2^m over "ab" or its complement.
+     * For m large enough, the two words collide under every
+     * polynomial hash with an odd multiplier mod 2^32, hashCode
+     * included, and so do all the strings.
+     */
+    private static String [ ] thueMorseKeys( int n, int m )
+    {
+        StringBuilder word = new StringBuilder( "a" );
+        StringBuilder complement = new StringBuilder( "b" );
+        for( int i = 0; i < m; i++ )
+        {
+            String w = word.toString( );
+            word.append( complement );
+            complement.append( w );
+        }
+        return blockKeys( n, word.toString( ), complement.toString( ) );
+    }
+
+    private static String [ ] blockKeys( int n, String zero, String one )
+    {
+        String [ ] keys = new String[ 1 << n ];
+        for( int i = 0; i < keys.length; i++ )
+        {
+            StringBuilder sb = new StringBuilder( n * zero.length( ) );
+            for( int b = 0; b < n; b++ )
+                sb.append( ( i >>> b & 1 ) == 0 ? zero : one );
+            keys[ i ] = sb.toString( );
+        }
+        return keys;
+    }
+
+    private static void check( boolean ok, String what )
+    {
+        if( !ok )
+            throw new AssertionError( what );
+    }
+
+    /**
+     * Check that keys sharing one hashCode are spread by the family,
+     * in both tables and after every reseed.
+     */
+    private static void checkSpread( String name, String [ ] keys )
+    {
+        for( String k : keys )
+            check( k.hashCode( ) == keys[ 0 ].hashCode( ), name + " keys must share a hashCode" );
+
+        SeparateChainingHashTable<String> plainChains = new SeparateChainingHashTable<>( keys.length );
+        SeparateChainingHashTable<String> seededChains =
+                new SeparateChainingHashTable<>( new SeededHashFamily( 1 ), keys.length );
+        QuadraticProbingHashTable<String> plainProbes = new QuadraticProbingHashTable<>( keys.length );
+        QuadraticProbingHashTable<String> seededProbes =
+                new QuadraticProbingHashTable<>( new SeededHashFamily( 1 ), keys.length );
+        for( String k : keys )
+        {
+            plainChains.insert( k );
+            seededChains.insert( k );
+            plainProbes.insert( k );
+            seededProbes.insert( k );
+        }
+        for( String k : keys )
+            check( seededChains.contains( k ) && seededProbes.contains( k ), "missing " + k );
+
+        System.out.println( keys.length + " " + name + " keys with one hashCode" );
+        System.out.println( "  longest chain: hashCode " + plainChains.longestChain( )
+                + ", seeded " + seededChains.longestChain( ) );
+        System.out.println( "  longest probe: hashCode " + plainProbes.longestProbe( )
+                + ", seeded " + seededProbes.longestProbe( ) );
+        check( plainChains.longestChain( ) == keys.length, "hashCode should put every key in one chain" );
+        check( seededChains.longestChain( ) <= 16, "seeded chains too long" );
+        check( seededProbes.longestProbe( ) <= 32, "seeded probes too long" );
+
+        SeededHashFamily family = new SeededHashFamily( 1 );
+        for( int reseed = 0; reseed < 5; reseed++, family.generateNewFunctions( ) )
+        {
+            Set<Integer> distinct = new HashSet<>( );
+            for( String k : keys )
+                distinct.add( family.hash( k, 0 ) );
+            check( distinct.size( ) > keys.length - 16, name + ": only " + distinct.size( ) + " distinct hashes" );
+        }
+    }
+
+    // Simple check that keys with one shared hashCode are spread
+    public static void main( String [ ] args )
+    {
+        checkSpread( "\"Aa\"/\"BB\"", collidingKeys( 12 ) );
+        checkSpread( "Thue-Morse", thueMorseKeys( 10, 8 ) );
+        System.out.println( "ok" );
+    }
+}
@@ -3,23 +3,45 @@ package hashTable;
 import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Dimension;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.LinkedList;
 import java.util.List;
 
 import javax.swing.JFrame;
 
+import bench.LatencyHistogram;
+import bench.SampledTimer;
 import gui.LinesComponent;
+import serialization.ChunkedReader;
+import serialization.ChunkedWriter;
+import serialization.ElementCodec;
+import serialization.StreamFormat;
 import stringgenerator.RandomStringGenerator;
+import trace.Target;
+import trace.Targets;
 
 // SeparateChaining Hash table class
 //
-// CONSTRUCTION: an approximate initial size or default of 101
+// CONSTRUCTION: an optional hashing function family and
+//               an approximate initial size or default of 101
 //
 // ******************PUBLIC OPERATIONS*********************
 // void insert( x )       --> Insert x
 // void remove( x )       --> Remove x
 // boolean contains( x )  --> Return true if x is present
 // void makeEmpty( )      --> Remove all items
+// void trimToSize( )     --> Shrink the table to fit its items
+// void setMinLoad( l )   --> Set the low-water mark for shrinking
+// void writeTo( out, c ) --> Write the items to a channel
+// readFrom( in, c, hf )  --> Static; read a table written by writeTo
+// ******************HASHING*******************************
+// Without a hash family, x.hashCode( ) is used directly.
+// With one, function 0 of the family is used, and new
+// functions are drawn (and the table rebuilt) whenever an
+// insert makes a chain longer than MAX_CHAIN_LENGTH.
 
 /**
  * Separate chaining table implementation of hash tables.
@@ -42,9 +64,19 @@ public class SeparateChainingHashTable<AnyType>
      */
     public SeparateChainingHashTable( int size )
     {
-        theLists = new LinkedList[ nextPrime( size ) ];
-        for( int i = 0; i < theLists.length; i++ )
-            theLists[ i ] = new LinkedList<>( );
+        this( null, size );
+    }
+
+    /**
+     * Construct the hash table.
+     * @param hf the hash family, or null to use hashCode.
+     * @param size approximate table size.
+     */
+    public SeparateChainingHashTable( HashFamily<? super AnyType> hf, int size )
+    {
+        hashFunctions = hf;
+        initialLength = nextPrime( size );
+        allocateLists( initialLength );
     }
 
     /**
@@ -62,6 +94,8 @@ public class SeparateChainingHashTable<AnyType>
                 // Rehash; see Section 5.5
             if( ++currentSize > theLists.length )
                 rehash( );
+            else if( whichList.size( ) > MAX_CHAIN_LENGTH && canReseed( ) )
+                reseed( );
         }
     }
 
@@ -76,6 +110,9 @@ public class SeparateChainingHashTable<AnyType>
     {
         whichList.remove( x );
             currentSize--;
+
+            if( currentSize < theLists.length * minLoad && theLists.length > initialLength )
+                shrink( );
     }
     }
 
@@ -90,16 +127,54 @@ public class SeparateChainingHashTable<AnyType>
         return whichList.contains( x );
     }
 
+    /**
+     * Return the length of the longest chain; used by tests.
+     */
+    int longestChain( )
+    {
+        int longest = 0;
+        for( List<AnyType> list : theLists )
+            longest = Math.max( longest, list.size( ) );
+        return longest;
+    }
+
     /**
      * Make the hash table logically empty.
+     * The table goes back to its initial length.
      */
     public void makeEmpty( )
     {
-        for( int i = 0; i < theLists.length; i++ )
-            theLists[ i ].clear( );
+        if( theLists.length > initialLength )
+            allocateLists( initialLength );
+        else
+            for( int i = 0; i < theLists.length; i++ )
+                theLists[ i ].clear( );
         currentSize = 0;    
     }
 
+    /**
+     * Shrink the table towards TRIM_LOAD, so that inserts after a
+     * trim do not rehash straight away. A table already at or above
+     * that load keeps its length; trimming never grows it.
+     */
+    public void trimToSize( )
+    {
+        rehash( Math.min( theLists.length, (int) ( currentSize / TRIM_LOAD ) + 1 ) );
+    }
+
+    /**
+     * Set the low-water mark below which remove shrinks the table.
+     * The table never shrinks automatically below its initial length.
+     * @param minLoad the load factor, 0 to disable shrinking.
+     * @throws IllegalArgumentException if minLoad is not in [0, 1/4].
+     */
+    public void setMinLoad( double minLoad )
+    {
+        if( minLoad < 0 || minLoad > MAX_LOAD / 4 )
+            throw new IllegalArgumentException( "minLoad out of range: " + minLoad );
+        this.minLoad = minLoad;
+    }
+
     /**
      * A hash routine for String objects.
      * @param key the String to hash.
@@ -121,24 +196,67 @@ public class SeparateChainingHashTable<AnyType>
     }
 
     private void rehash( )
+    {
+        reseeds = 0;
+        rehash( 2 * theLists.length );
+    }
+
+    /**
+     * Shrink the table so that its load is twice the low-water mark.
+     * Halfway between the two marks, so it takes a large change in size
+     * to trigger the next expand or shrink.
+     */
+    private void shrink( )
+    {
+        rehash( Math.max( initialLength, (int) ( currentSize / ( 2 * minLoad ) ) ) );
+    }
+
+    /**
+     * Return true if the hash functions may be regenerated now.
+     */
+    private boolean canReseed( )
+    {
+        return hashFunctions != null && reseeds < ALLOWED_RESEEDS;
+    }
+
+    /**
+     * Draw new hash functions and rebuild the table at the same size.
+     * Breaks up long chains caused by adversarial keys.
+     */
+    private void reseed( )
+    {
+        reseeds++;
+        hashFunctions.generateNewFunctions( );
+        rehash( theLists.length );
+    }
+
+    private void rehash( int newLength )
     {
         List<AnyType> [ ]  oldLists = theLists;
 
-            // Create new double-sized, empty table
-        theLists = new List[ nextPrime( 2 * theLists.length ) ];
-        for( int j = 0; j < theLists.length; j++ )
-            theLists[ j ] = new LinkedList<>( );
+            // Create new empty table
+        allocateLists( nextPrime( newLength ) );
 
-            // Copy table over
-        currentSize = 0;
+            // Copy table over; items are known to be distinct
         for( List<AnyType> list : oldLists )
             for( AnyType item : list )
-                insert( item );
+                theLists[ myhash( item ) ].add( item );
+    }
+
+    /**
+     * Internal method to allocate the array of empty lists.
+     * @param length the number of lists.
+     */
+    private void allocateLists( int length )
+    {
+        theLists = new List[ length ];
+        for( int j = 0; j < theLists.length; j++ )
+            theLists[ j ] = new LinkedList<>( );
     }
 
     private int myhash( AnyType x )
     {
-        int hashVal = x.hashCode( );
+        int hashVal = hashFunctions == null ? x.hashCode( ) : hashFunctions.hash( x, 0 );
 
         hashVal %= theLists.length;
         if( hashVal < 0 )
@@ -148,10 +266,20 @@ public class SeparateChainingHashTable<AnyType>
     }
     
     private static final int DEFAULT_TABLE_SIZE = 101;
+    private static final int MAX_CHAIN_LENGTH = 16;
+    private static final int ALLOWED_RESEEDS = 2;   // per table size
+    private static final double MAX_LOAD = 1.0;
+    private static final double TRIM_LOAD = MAX_LOAD / 2;  // target of trimToSize
+    private static final double DEFAULT_MIN_LOAD = MAX_LOAD / 8;
+
+    private final HashFamily<? super AnyType> hashFunctions;
+    private final int initialLength;    // Floor for automatic shrinking
+    private double minLoad = DEFAULT_MIN_LOAD;
 
         /** The array of Lists. */
     private List<AnyType> [ ] theLists; 
     private int currentSize;
+    private int reseeds;        // Reseeds since the last expansion
 
     /**
      * Internal method to find a prime number at least as large as n.
@@ -190,6 +318,58 @@ public class SeparateChainingHashTable<AnyType>
         return true;
     }
     
+    /**
+     * Write the table to a channel in the binary stream format.
+     * @param out the channel to write to; it is not closed.
+     * @param codec the codec for the items.
+     */
+    public void writeTo( WritableByteChannel out, ElementCodec<? super AnyType> codec ) throws IOException
+    {
+        ChunkedWriter writer = new ChunkedWriter( out );
+
+        writer.writeHeader( StreamFormat.SEPARATE_CHAINING_HASH_TABLE );
+        writer.writeInt( theLists.length );
+        writer.writeInt( currentSize );
+        for( List<AnyType> list : theLists )
+            for( AnyType item : list )
+                codec.encode( item, writer );
+        writer.flush( );
+    }
+
+    /**
+     * Read a table written by writeTo.
+     * The items are linked straight into a table of the saved length,
+     * without the duplicate checks and rehashing of insert.
+     * @param in the channel to read from; it is not closed.
+     * @param codec the codec for the items.
+     * @param hf the hash family, or null to use hashCode.
+     * @return the table.
+     */
+    public static <AnyType> SeparateChainingHashTable<AnyType> readFrom( ReadableByteChannel in,
+            ElementCodec<AnyType> codec, HashFamily<? super AnyType> hf ) throws IOException
+    {
+        ChunkedReader reader = new ChunkedReader( in );
+
+        reader.readHeader( StreamFormat.SEPARATE_CHAINING_HASH_TABLE );
+        int length = reader.readInt( );
+        int count = reader.readInt( );
+        if( length < 1 || length > StreamFormat.MAX_TABLE_LENGTH )
+            throw new StreamCorruptedException( "bad table length " + length );
+        if( count < 0 || count > length * MAX_LOAD )
+            throw new StreamCorruptedException( "item count " + count + " out of range for length " + length );
+
+        SeparateChainingHashTable<AnyType> table = new SeparateChainingHashTable<>( hf, DEFAULT_TABLE_SIZE );
+        table.allocateLists( nextPrime( Math.max( length, count ) ) );
+        for( int i = 0; i < count; i++ )
+        {
+            AnyType x = codec.decode( reader );
+            table.theLists[ table.myhash( x ) ].add( x );
+        }
+
+        table.currentSize = count;
+        return table;
+    }
+    
     public static long timeforinsert(SeparateChainingHashTable<? extends String> H, String[] stringstore)
     {
     	SeparateChainingHashTable<String> h_temp = (SeparateChainingHashTable<String>) H;
@@ -218,6 +398,7 @@ public class SeparateChainingHashTable<AnyType>
     	return System.nanoTime() - start_time;
     }
 
+
         // Simple main
     public static void main( String [ ] args )
     {
@@ -244,6 +425,7 @@ public class SeparateChainingHashTable<AnyType>
    	  string_temp[1] = rng.RandomString();
    	  timeforinsert(H, string_temp);
    	  timeforremove(H, string_temp);
+   	  Target target = Targets.of(H);   // For the sampled latency passes
    	  long datax1[] = new long[14], datax2[] = new long[14], max1=0, max2=0;
    	  datax1[0] = 0;
    	  datax2[0] = 0;
@@ -253,6 +435,7 @@ public class SeparateChainingHashTable<AnyType>
    		 int range = (int) Math.pow(2, i);      
    		 String stringstore[] = new String[range];		 
    		 long total1=0, total2=0;
+   		 LatencyHistogram insertLatency = new LatencyHistogram(), removeLatency = new LatencyHistogram();
    		 for (int h=0; h<TIMES; h++)
    		 {			 
    			 for( int j=0; j < range; j++)
@@ -261,6 +444,8 @@ public class SeparateChainingHashTable<AnyType>
    			 }	     
    			 total1 += timeforinsert(H, stringstore);  	     
    			 total2 += timeforremove(H, stringstore);
+   			 SampledTimer.run(target, Target.INSERT, stringstore, SampledTimer.DEFAULT_SAMPLE, insertLatency);
+   			 SampledTimer.run(target, Target.REMOVE, stringstore, SampledTimer.DEFAULT_SAMPLE, removeLatency);
    		 }
    	    System.out.println( "The time for " + range + " insert cost is :" + total1/TIMES);
    	    datax1[i+1] = total1/TIMES;
@@ -269,6 +454,8 @@ public class SeparateChainingHashTable<AnyType>
    	    	max1 = datax1[i+1];
    	    }
    	    System.out.println( "The time for " + range + " remove cost is :" + total2/TIMES);
+   	    System.out.println( "  insert latency: " + insertLatency);
+   	    System.out.println( "  remove latency: " + removeLatency);
    	    datax2[i+1] = total2/TIMES;
    	    if (datax2[i+1] > max2)
    	    {
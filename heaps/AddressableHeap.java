@@ -0,0 +1,26 @@
+package heaps;
+
+/**
+ * Mergeable priority queue whose items can be reached through
+ * handles, so their keys can be lowered in place.
+ * A handle stays valid across merges until its item is removed.
+ */
+public interface AddressableHeap<AnyType extends Comparable<? super AnyType>,
+        HeapType extends AddressableHeap<AnyType, HeapType>>
+        extends MergeableHeap<AnyType, HeapType>
+{
+    /**
+     * The interface for handles returned by insertHandle.
+     */
+    interface Handle<AnyType>
+    {
+        /**
+         * Returns the value stored at this handle.
+         * @return the value stored at this handle.
+         */
+        AnyType getValue( );
+    }
+
+    Handle<AnyType> insertHandle( AnyType x );
+    void decreaseKey( Handle<AnyType> h, AnyType newVal );
+}
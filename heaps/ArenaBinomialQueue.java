@@ -0,0 +1,451 @@
+package heaps;
+
+import java.util.Arrays;
+import java.util.Random;
+
+
+//ArenaBinomialQueue class
+//
+//CONSTRUCTION: with optional capacity (that defaults to 16)
+//
+//******************PUBLIC OPERATIONS*********************
+//void insert( x )       --> Insert x
+//Comparable deleteMin( )--> Return and remove smallest item
+//Comparable findMin( )  --> Return smallest item
+//boolean isEmpty( )     --> Return true if empty; else false
+//int size( )            --> Return number of items
+//void makeEmpty( )      --> Remove all items
+//void merge( rhs )      --> Absorb rhs into this heap
+//******************ERRORS********************************
+//findMin and deleteMin return null if empty
+
+/**
+* Implements a binomial queue whose nodes live in an arena.
+* Same algorithms as BinomialQueue, but a node is an index into
+* parallel arrays of elements, left children and next siblings,
+* and deleted nodes are recycled through a free list threaded
+* through the sibling array. Once the arena has grown to the
+* largest size reached, insert and deleteMin allocate nothing.
+* Because nodes belong to one arena, merge copies the nodes of rhs
+* in, so it takes O( N ) time for an rhs of N items rather than
+* O( log N ).
+* Note that all "matching" is based on the compareTo method.
+*/
+public final class ArenaBinomialQueue<AnyType extends Comparable<? super AnyType>>
+       implements MergeableHeap<AnyType, ArenaBinomialQueue<AnyType>>
+{
+/**
+* Construct the binomial queue.
+*/
+public ArenaBinomialQueue( )
+{
+   this( DEFAULT_CAPACITY );
+}
+
+/**
+* Construct the binomial queue.
+* @param capacity the number of nodes to allocate up front.
+*/
+public ArenaBinomialQueue( int capacity )
+{
+   capacity = Math.max( capacity, 1 );
+   elements = new Object[ capacity ];
+   leftChild = new int[ capacity ];
+   nextSibling = new int[ capacity ];
+   theTrees = new int[ DEFAULT_TREES ];
+   scratchTrees = new int[ DEFAULT_TREES ];
+   Arrays.fill( scratchTrees, NIL );
+   makeEmpty( );
+}
+
+/**
+* Merge rhs into the priority queue.
+* rhs becomes empty. rhs must be different from this.
+* The nodes of rhs are copied into this arena.
+* @param rhs the other binomial queue.
+*/
+public void merge( ArenaBinomialQueue<AnyType> rhs )
+{
+   if( this == rhs )    // Avoid aliasing problems
+       return;
+
+   int [ ] rhsTrees = new int[ rhs.theTrees.length ];
+   for( int k = 0; k < rhsTrees.length; k++ )
+       rhsTrees[ k ] = copyTree( rhs, rhs.theTrees[ k ] );
+
+   meld( rhsTrees, rhs.currentSize );
+   rhs.makeEmpty( );
+}
+
+/**
+* Copy the tree rooted at node t of rhs, with its siblings,
+* into this arena.
+* @return the copy of t, or NIL if t is NIL.
+*/
+private int copyTree( ArenaBinomialQueue<AnyType> rhs, int t )
+{
+   int first = NIL, prev = NIL;
+   for( ; t != NIL; t = rhs.nextSibling[ t ] )
+   {
+       int n = allocNode( (AnyType) rhs.elements[ t ] );
+       int child = copyTree( rhs, rhs.leftChild[ t ] );   // May grow the arena
+       leftChild[ n ] = child;
+       if( prev == NIL )
+           first = n;
+       else
+           nextSibling[ prev ] = n;
+       prev = n;
+   }
+   return first;
+}
+
+/**
+* Merge a forest of binomial trees into the priority queue.
+* Each tree taken from rhsTrees is set to NIL there.
+* @param rhsTrees the tree roots, indexed by rank.
+* @param rhsSize the number of items in rhsTrees.
+*/
+private void meld( int [ ] rhsTrees, int rhsSize )
+{
+   currentSize += rhsSize;
+
+   if( currentSize > capacity( ) )
+   {
+       int newNumTrees = Math.max( theTrees.length, rhsTrees.length ) + 1;
+       expandTheTrees( newNumTrees );
+   }
+
+   int carry = NIL;
+   for( int i = 0, j = 1; j <= currentSize; i++, j *= 2 )
+   {
+       int t1 = theTrees[ i ];
+       int t2 = i < rhsTrees.length ? rhsTrees[ i ] : NIL;
+
+       int whichCase = t1 == NIL ? 0 : 1;
+       whichCase += t2 == NIL ? 0 : 2;
+       whichCase += carry == NIL ? 0 : 4;
+
+       switch( whichCase )
+       {
+         case 0: /* No trees */
+         case 1: /* Only this */
+           break;
+         case 2: /* Only rhs */
+           theTrees[ i ] = t2;
+           rhsTrees[ i ] = NIL;
+           break;
+         case 4: /* Only carry */
+           theTrees[ i ] = carry;
+           carry = NIL;
+           break;
+         case 3: /* this and rhs */
+           carry = combineTrees( t1, t2 );
+           theTrees[ i ] = rhsTrees[ i ] = NIL;
+           break;
+         case 5: /* this and carry */
+           carry = combineTrees( t1, carry );
+           theTrees[ i ] = NIL;
+           break;
+         case 6: /* rhs and carry */
+           carry = combineTrees( t2, carry );
+           rhsTrees[ i ] = NIL;
+           break;
+         case 7: /* All three */
+           theTrees[ i ] = carry;
+           carry = combineTrees( t1, t2 );
+           rhsTrees[ i ] = NIL;
+           break;
+       }
+   }
+}
+
+/**
+* Return the result of merging equal-sized t1 and t2.
+*/
+private int combineTrees( int t1, int t2 )
+{
+   if( element( t1 ).compareTo( element( t2 ) ) > 0 )
+   {
+       int tmp = t1;
+       t1 = t2;
+       t2 = tmp;
+   }
+   nextSibling[ t2 ] = leftChild[ t1 ];
+   leftChild[ t1 ] = t2;
+   return t1;
+}
+
+/**
+* Insert into the priority queue, maintaining heap order.
+* Works like incrementing a binary counter, as in BinomialQueue.
+* @param x the item to insert.
+*/
+public void insert( AnyType x )
+{
+   int carry = allocNode( x );
+   currentSize++;
+
+   for( int i = 0; ; i++ )
+   {
+       if( i == theTrees.length )
+           expandTheTrees( i + 1 );
+
+       if( theTrees[ i ] == NIL )
+       {
+           theTrees[ i ] = carry;
+           return;
+       }
+
+       carry = combineTrees( theTrees[ i ], carry );
+       theTrees[ i ] = NIL;
+   }
+}
+
+/**
+* Find the smallest item in the priority queue.
+* @return the smallest item, or null if empty.
+*/
+public AnyType findMin( )
+{
+   if( isEmpty( ) )
+       return null;
+
+   return element( theTrees[ findMinIndex( ) ] );
+}
+
+/**
+* Find index of tree containing the smallest item in the priority queue.
+* The priority queue must not be empty.
+* @return the index of tree containing the smallest item.
+*/
+private int findMinIndex( )
+{
+   int i;
+   int minIndex;
+
+   for( i = 0; theTrees[ i ] == NIL; i++ )
+       ;
+
+   for( minIndex = i; i < theTrees.length; i++ )
+       if( theTrees[ i ] != NIL &&
+           element( theTrees[ i ] ).compareTo( element( theTrees[ minIndex ] ) ) < 0 )
+           minIndex = i;
+
+   return minIndex;
+}
+
+/**
+* Remove the smallest item from the priority queue.
+* The removed node goes back on the free list.
+* @return the smallest item, or null if empty.
+*/
+public AnyType deleteMin( )
+{
+   if( isEmpty( ) )
+       return null;
+
+   int minIndex = findMinIndex( );
+   int minRoot = theTrees[ minIndex ];
+   AnyType minItem = element( minRoot );
+
+   int deletedTree = leftChild[ minRoot ];
+   freeNode( minRoot );
+
+   // Construct H'' in the scratch forest, which meld leaves empty
+   if( scratchTrees.length < theTrees.length )
+   {
+       scratchTrees = new int[ theTrees.length ];
+       Arrays.fill( scratchTrees, NIL );
+   }
+
+   int deletedSize = ( 1 << minIndex ) - 1;
+   for( int j = minIndex - 1; j >= 0; j-- )
+   {
+       scratchTrees[ j ] = deletedTree;
+       deletedTree = nextSibling[ deletedTree ];
+       nextSibling[ scratchTrees[ j ] ] = NIL;
+   }
+
+   // Construct H'
+   theTrees[ minIndex ] = NIL;
+   currentSize -= deletedSize + 1;
+
+   meld( scratchTrees, deletedSize );
+
+   return minItem;
+}
+
+/**
+* Test if the priority queue is logically empty.
+* @return true if empty, false otherwise.
+*/
+public boolean isEmpty( )
+{
+   return currentSize == 0;
+}
+
+/**
+* Get the number of items in the priority queue.
+* @return the size.
+*/
+public int size( )
+{
+   return currentSize;
+}
+
+/**
+* Make the priority queue logically empty.
+* The arena keeps its size.
+*/
+public void makeEmpty( )
+{
+   currentSize = 0;
+   Arrays.fill( theTrees, NIL );
+   Arrays.fill( elements, 0, used, null );
+   used = 0;
+   freeList = NIL;
+}
+
+/**
+* Take a node from the free list, or from the unused end
+* of the arena, growing it if full.
+* @return the new node, holding x and no links.
+*/
+private int allocNode( AnyType x )
+{
+   int n = freeList;
+   if( n != NIL )
+       freeList = nextSibling[ n ];
+   else
+   {
+       if( used == elements.length )
+       {
+           int newLength = used * 2;
+           elements = Arrays.copyOf( elements, newLength );
+           leftChild = Arrays.copyOf( leftChild, newLength );
+           nextSibling = Arrays.copyOf( nextSibling, newLength );
+       }
+       n = used++;
+   }
+
+   elements[ n ] = x;
+   leftChild[ n ] = NIL;
+   nextSibling[ n ] = NIL;
+   return n;
+}
+
+/**
+* Return node n to the free list.
+*/
+private void freeNode( int n )
+{
+   elements[ n ] = null;
+   nextSibling[ n ] = freeList;
+   freeList = n;
+}
+
+private AnyType element( int n )
+{
+   return (AnyType) elements[ n ];
+}
+
+private void expandTheTrees( int newNumTrees )
+{
+   int oldNumTrees = theTrees.length;
+   theTrees = Arrays.copyOf( theTrees, newNumTrees );
+   Arrays.fill( theTrees, oldNumTrees, newNumTrees, NIL );
+}
+
+/**
+* Return the capacity.
+*/
+private int capacity( )
+{
+   return ( 1 << theTrees.length ) - 1;
+}
+
+private static final int NIL = -1;
+private static final int DEFAULT_CAPACITY = 16;
+private static final int DEFAULT_TREES = 1;
+
+private int currentSize;          // # items in priority queue
+private int [ ] theTrees;         // Tree roots, indexed by rank
+private int [ ] scratchTrees;     // Reused by deleteMin
+
+private Object [ ] elements;      // The data in each node
+private int [ ] leftChild;        // Left child of each node
+private int [ ] nextSibling;      // Right sibling, or next free node
+private int used;                 // Nodes ever taken from the arena
+private int freeList;             // First free node, or NIL
+
+   // Test program; a hold model against BinomialQueue
+public static void main( String [ ] args )
+{
+   int numItems = 10000;
+   ArenaBinomialQueue<Integer> h  = new ArenaBinomialQueue<>( );
+   ArenaBinomialQueue<Integer> h1 = new ArenaBinomialQueue<>( );
+   int i = 37;
+
+   System.out.println( "Starting check." );
+
+   for( i = 37; i != 0; i = ( i + 37 ) % numItems )
+       if( i % 2 == 0 )
+           h1.insert( i );
+       else
+           h.insert( i );
+
+   h.merge( h1 );
+   if( !h1.isEmpty( ) || h.size( ) != numItems - 1 )
+       System.out.println( "Oops! merge" );
+   for( i = 1; i < numItems; i++ )
+       if( h.deleteMin( ) != i )
+           System.out.println( "Oops! " + i );
+
+   System.out.println( "Check done." );
+
+   int live = 1000000;
+   int numOps = 5000000;
+   int rounds = 5;
+   Random rnd = new Random( 100 );
+   Integer [ ] items = new Integer[ 1 << 16 ];
+   for( i = 0; i < items.length; i++ )
+       items[ i ] = rnd.nextInt( );
+
+   BinomialQueue<Integer> b = new BinomialQueue<>( );
+   long arenaTime = 0, nodeTime = 0;
+
+   for( int r = 0; r <= rounds; r++ )
+   {
+       long startTime = System.nanoTime( );
+       for( i = 0; i < live; i++ )
+           h.insert( items[ i & 0xFFFF ] );
+       for( i = 0; i < numOps; i++ )
+       {
+           h.deleteMin( );
+           h.insert( items[ ( i * 7 ) & 0xFFFF ] );
+       }
+       h.makeEmpty( );
+       long t1 = System.nanoTime( );
+
+       for( i = 0; i < live; i++ )
+           b.insert( items[ i & 0xFFFF ] );
+       for( i = 0; i < numOps; i++ )
+       {
+           b.deleteMin( );
+           b.insert( items[ ( i * 7 ) & 0xFFFF ] );
+       }
+       b.makeEmpty( );
+       long t2 = System.nanoTime( );
+
+       if( r > 0 )
+       {
+           arenaTime += t1 - startTime;
+           nodeTime += t2 - t1;
+       }
+   }
+
+   System.out.println( "The time for " + numOps + " hold operations on " + live + " items:" );
+   System.out.println( "  ArenaBinomialQueue " + arenaTime / rounds );
+   System.out.println( "  BinomialQueue      " + nodeTime / rounds );
+}
+}
@@ -1,8 +1,21 @@
 package heaps;
 
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Random;
 
 import heaps.BinaryHeap;
+import serialization.ChunkedReader;
+import serialization.ChunkedWriter;
+import serialization.ElementCodec;
+import serialization.StreamFormat;
 
 
 //BinaryHeap class
@@ -12,12 +25,21 @@ import heaps.BinaryHeap;
 //
 //******************PUBLIC OPERATIONS*********************
 //void insert( x )       --> Insert x
+//void insertAll( xs )   --> Insert an array or collection of items
 //Comparable deleteMin( )--> Return and remove smallest item
+//int deleteMin( k, out )--> Remove the k smallest items into out
 //Comparable findMin( )  --> Return smallest item
 //boolean isEmpty( )     --> Return true if empty; else false
+//int size( )            --> Return number of items
+//Iterator sortedIterator( ) --> Visit items in order, leaving the heap as is
 //void makeEmpty( )      --> Remove all items
+//void trimToSize( )     --> Shrink the array to fit the items
+//void setMinLoad( l )   --> Set the low-water mark for shrinking
+//void writeTo( out, c ) --> Write the heap array to a channel
+//readFrom( in, c )      --> Static; read a heap written by writeTo
 //******************ERRORS********************************
-//Throws UnderflowException as appropriate
+//Throws UnderflowException as appropriate;
+//deleteMin( k, out ) throws IllegalArgumentException for bad arguments
 
 /**
 * Implements a binary heap.
@@ -42,7 +64,9 @@ public BinaryHeap( )
 public BinaryHeap( int capacity )
 {
    currentSize = 0;
+   minCapacity = capacity;
    array = (AnyType[]) new Comparable[ capacity + 1 ];
+   setMinLoad( DEFAULT_MIN_LOAD );
 }
 
 /**
@@ -51,7 +75,9 @@ public BinaryHeap( int capacity )
 public BinaryHeap( AnyType [ ] items )
 {
        currentSize = items.length;
+       minCapacity = DEFAULT_CAPACITY;
        array = (AnyType[]) new Comparable[ ( currentSize + 2 ) * 11 / 10 ];
+       setMinLoad( DEFAULT_MIN_LOAD );
 
        int i = 1;
        for( AnyType item : items )
@@ -67,22 +93,110 @@ public BinaryHeap( AnyType [ ] items )
 public void insert( AnyType x )
 {
    if( currentSize == array.length - 1 )
-       enlargeArray( array.length * 2 + 1 );
+       resizeArray( array.length * 2 + 1 );
 
        // Percolate up
+   modCount++;
    int hole = ++currentSize;
    for( array[ 0 ] = x; x.compareTo( array[ hole / 2 ] ) < 0; hole /= 2 )
        array[ hole ] = array[ hole / 2 ];
    array[ hole ] = x;
 }
 
+/**
+* Insert a batch of items, maintaining heap order.
+* The array grows at most once. The items are appended and
+* only their ancestors are re-heapified, level by level from
+* the bottom, which costs O( k + log n log k ) for k items
+* rather than O( k log n ) for k inserts.
+* @param items the items to insert.
+*/
+public void insertAll( AnyType [ ] items )
+{
+   reserve( items.length );
+   modCount++;
+
+   int first = currentSize + 1;
+   for( AnyType item : items )
+       array[ ++currentSize ] = item;
+   heapifyAbove( first );
+}
 
-private void enlargeArray( int newSize )
+/**
+* Insert a batch of items, maintaining heap order.
+* @param items the items to insert.
+* @see #insertAll(Comparable[])
+*/
+public void insertAll( Collection<? extends AnyType> items )
+{
+   reserve( items.size( ) );
+   modCount++;
+
+   int first = currentSize + 1;
+   for( AnyType item : items )
+       array[ ++currentSize ] = item;
+   heapifyAbove( first );
+}
+
+/**
+* Make room for k more items with at most one resize.
+*/
+private void reserve( int k )
+{
+   if( currentSize + k > array.length - 1 )
+       resizeArray( Math.max( currentSize + k + 1, array.length * 2 + 1 ) );
+}
+
+/**
+* Restore heap order after items were appended at
+* indices first..currentSize. Each pass percolates down the
+* parents of the previous pass, in decreasing index order,
+* so every node is fixed after all of its changed descendants.
+* @param first the index of the first appended item.
+*/
+private void heapifyAbove( int first )
+{
+   for( int lo = first / 2, hi = currentSize / 2; hi > 0; lo /= 2, hi /= 2 )
+       for( int i = hi; i >= Math.max( lo, 1 ); i-- )
+           percolateDown( i );
+}
+
+
+/**
+* Internal method to grow or shrink the heap array.
+* @param newSize the new array length; must exceed currentSize.
+*/
+private void resizeArray( int newSize )
 {
        AnyType [] old = array;
        array = (AnyType []) new Comparable[ newSize ];
-       for( int i = 0; i < old.length; i++ )
-           array[ i ] = old[ i ];        
+       for( int i = 1; i <= currentSize; i++ )
+           array[ i ] = old[ i ];
+       shrinkSize = (int) ( ( newSize - 1 ) * minLoad );
+}
+
+/**
+* Shrink the array to fit the items currently in the heap.
+*/
+public void trimToSize( )
+{
+   resizeArray( currentSize + 1 );
+}
+
+/**
+* Set the low-water mark below which deleteMin shrinks the array.
+* The array then shrinks to twice the low-water mark, halfway to full,
+* so it takes a large change in size to trigger the next resize.
+* The array never shrinks automatically below its initial capacity.
+* @param minLoad the fraction of capacity in use, 0 to disable shrinking.
+* @throws IllegalArgumentException if minLoad is not in [0, 1/4].
+*/
+public void setMinLoad( double minLoad )
+{
+   if( minLoad < 0 || minLoad > 0.25 )
+       throw new IllegalArgumentException( "minLoad out of range: " + minLoad );
+   this.minLoad = minLoad;
+   shrinkSize = (int) ( ( array.length - 1 ) * minLoad );
 }
 
 /**
@@ -108,12 +222,82 @@ public AnyType deleteMin( )
   	 return null;
 
    AnyType minItem = findMin( );
-   array[ 1 ] = array[ currentSize-- ];
+   modCount++;
+   array[ 1 ] = array[ currentSize ];
+   array[ currentSize-- ] = null;
    percolateDown( 1 );
 
+   shrinkIfSparse( );
    return minItem;
 }
 
+/**
+* Remove the k smallest items from the priority queue, in order.
+* Each removal sinks the hole at the root straight to a leaf along
+* the smaller children, one compare per level, and then floats the
+* last item up from there; that item usually belongs near the bottom,
+* so this takes about half the compares of deleteMin.
+* @param k the number of items to remove.
+* @param out receives the items, smallest first; must hold them.
+* @return the number of items removed, at most k.
+* @throws IllegalArgumentException if k is negative or out is
+* too short for the items removed.
+*/
+public int deleteMin( int k, AnyType [ ] out )
+{
+   if( k < 0 )
+       throw new IllegalArgumentException( "k must not be negative: " + k );
+   int n = Math.min( k, currentSize );
+   if( out.length < n )
+       throw new IllegalArgumentException( "out holds " + out.length + " items, need " + n );
+   modCount++;
+
+   for( int i = 0; i < n; i++ )
+   {
+       out[ i ] = array[ 1 ];
+       AnyType last = array[ currentSize ];
+       array[ currentSize-- ] = null;
+       if( currentSize > 0 )
+           replaceRoot( last );
+   }
+
+   shrinkIfSparse( );
+   return n;
+}
+
+/**
+* Shrink the array if the heap has fallen below the low-water mark.
+*/
+private void shrinkIfSparse( )
+{
+   if( currentSize < shrinkSize && array.length - 1 > minCapacity )
+       resizeArray( Math.max( minCapacity, (int) ( currentSize / ( 2 * minLoad ) ) ) + 1 );
+}
+
+/**
+* Internal method that replaces the root by x, bottom-up:
+* the hole goes down to a leaf, then x percolates up.
+* @param x the item to place; it is not in the heap.
+*/
+private void replaceRoot( AnyType x )
+{
+   int hole = 1;
+   int child;
+
+   while( ( child = hole * 2 ) <= currentSize )
+   {
+       if( child != currentSize &&
+               array[ child + 1 ].compareTo( array[ child ] ) < 0 )
+           child++;
+       array[ hole ] = array[ child ];
+       hole = child;
+   }
+
+   for( ; hole > 1 && x.compareTo( array[ hole / 2 ] ) < 0; hole /= 2 )
+       array[ hole ] = array[ hole / 2 ];
+   array[ hole ] = x;
+}
+
 /**
 * Establish heap order property from an arbitrary
 * arrangement of items. Runs in linear time.
@@ -133,18 +317,122 @@ public boolean isEmpty( )
    return currentSize == 0;
 }
 
+/**
+* Get the number of items in the priority queue.
+* @return the size.
+*/
+public int size( )
+{
+   return currentSize;
+}
+
 /**
 * Make the priority queue logically empty.
+* The array goes back to its initial capacity and drops
+* its references to the old items.
 */
 public void makeEmpty( )
 {
    currentSize = 0;
+   modCount++;
+   resizeArray( minCapacity + 1 );
+}
+
+/**
+* Return an iterator over the items in sorted order.
+* The heap is neither copied nor changed: the iterator keeps a
+* small frontier heap of array indices, starting with the root,
+* and visiting an index adds its two children. The first k items
+* cost O( k log k ) time and O( k ) extra space.
+* The heap must not be changed while the iterator is in use.
+* @return the iterator; remove is not supported.
+*/
+public Iterator<AnyType> sortedIterator( )
+{
+   return new SortedIterator( );
+}
+
+private class SortedIterator implements Iterator<AnyType>
+{
+   SortedIterator( )
+   {
+       if( currentSize > 0 )
+           frontier[ ++frontierSize ] = 1;
+   }
+
+   public boolean hasNext( )
+   {
+       return frontierSize > 0;
+   }
+
+   public AnyType next( )
+   {
+       if( expectedModCount != modCount )
+           throw new ConcurrentModificationException( );
+       if( frontierSize == 0 )
+           throw new NoSuchElementException( );
+
+       int i = frontier[ 1 ];
+       int last = frontier[ frontierSize-- ];
+       if( frontierSize > 0 )
+           siftDown( last );
+
+       if( 2 * i <= currentSize )
+           siftUp( 2 * i );
+       if( 2 * i + 1 <= currentSize )
+           siftUp( 2 * i + 1 );
+       return array[ i ];
+   }
+
+   public void remove( )
+   {
+       throw new UnsupportedOperationException( );
+   }
+
+   private int [ ] frontier = new int[ 8 ];  // Heap of indices into array
+   private int frontierSize;
+   private final int expectedModCount = modCount;
+
+   private void siftUp( int index )
+   {
+       if( frontierSize == frontier.length - 1 )
+           frontier = Arrays.copyOf( frontier, frontier.length * 2 );
+
+       AnyType x = array[ index ];
+       int hole = ++frontierSize;
+       for( ; hole > 1 && x.compareTo( array[ frontier[ hole / 2 ] ] ) < 0; hole /= 2 )
+           frontier[ hole ] = frontier[ hole / 2 ];
+       frontier[ hole ] = index;
+   }
+
+   private void siftDown( int index )
+   {
+       AnyType x = array[ index ];
+       int hole = 1;
+       int child;
+       for( ; ( child = hole * 2 ) <= frontierSize; hole = child )
+       {
+           if( child != frontierSize &&
+                   array[ frontier[ child + 1 ] ].compareTo( array[ frontier[ child ] ] ) < 0 )
+               child++;
+           if( array[ frontier[ child ] ].compareTo( x ) < 0 )
+               frontier[ hole ] = frontier[ child ];
+           else
+               break;
+       }
+       frontier[ hole ] = index;
+   }
 }
 
 private static final int DEFAULT_CAPACITY = 10;
+private static final double DEFAULT_MIN_LOAD = 0.25;
 
 private int currentSize;      // Number of elements in heap
 private AnyType [ ] array; // The heap array
+private final int minCapacity; // Floor for automatic shrinking
+private double minLoad;       // Low-water mark as a fraction of capacity
+private int shrinkSize;       // Shrink when currentSize falls below this
+private int modCount;         // Changes to heap order, for iterators
 
 /**
 * Internal method to percolate down in the heap.
@@ -169,6 +457,55 @@ private void percolateDown( int hole )
    array[ hole ] = tmp;
 }
 
+/**
+* Write the heap to a channel in the binary stream format.
+* The heap array is written in order, as is.
+* @param out the channel to write to; it is not closed.
+* @param codec the codec for the items.
+*/
+public void writeTo( WritableByteChannel out, ElementCodec<? super AnyType> codec ) throws IOException
+{
+   ChunkedWriter writer = new ChunkedWriter( out );
+
+   writer.writeHeader( StreamFormat.BINARY_HEAP );
+   writer.writeInt( currentSize );
+   for( int i = 1; i <= currentSize; i++ )
+       codec.encode( array[ i ], writer );
+   writer.flush( );
+}
+
+/**
+* Read a heap written by writeTo.
+* The saved array is already in heap order, so it is loaded
+* into place without buildHeap.
+* @param in the channel to read from; it is not closed.
+* @param codec the codec for the items.
+* @return the heap.
+*/
+public static <AnyType extends Comparable<? super AnyType>> BinaryHeap<AnyType> readFrom(
+       ReadableByteChannel in, ElementCodec<AnyType> codec ) throws IOException
+{
+   ChunkedReader reader = new ChunkedReader( in );
+
+   reader.readHeader( StreamFormat.BINARY_HEAP );
+   int count = reader.readInt( );
+   if( count < 0 )
+       throw new StreamCorruptedException( "negative item count " + count );
+
+       // Reserve a bounded amount up front, since count is unchecked;
+       // a corrupt count ends in EOFException, not OutOfMemoryError
+   BinaryHeap<AnyType> heap = new BinaryHeap<>( );
+   heap.resizeArray( Math.min( count, StreamFormat.MAX_PREALLOCATED_ITEMS ) + 1 );
+   while( heap.currentSize < count )
+   {
+       if( heap.currentSize == heap.array.length - 1 )
+           heap.resizeArray( (int) Math.min( 2L * heap.array.length, count + 1L ) );
+       heap.array[ ++heap.currentSize ] = codec.decode( reader );
+   }
+
+   return heap;
+}
+
    // Test program
 public static void main( String [ ] args )
 {
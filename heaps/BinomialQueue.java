@@ -7,20 +7,29 @@ package heaps;
 //
 //******************PUBLIC OPERATIONS*********************
 //void insert( x )       --> Insert x
+//Handle insertHandle( x ) --> Insert x, return its handle
 //Comparable deleteMin( )--> Return and remove smallest item
 //Comparable findMin( )  --> Return smallest item
+//void decreaseKey( h, newVal ) --> Lower the value of item at h
 //boolean isEmpty( )     --> Return true if empty; else false
 //void makeEmpty( )      --> Remove all items
 //vod merge( rhs )       --> Absord rhs into this heap
 //******************ERRORS********************************
-//Throws UnderflowException as appropriate
+//findMin and deleteMin return null if empty;
+//decreaseKey throws IllegalArgumentException for bad arguments,
+//including handles from before makeEmpty or from another heap
 
 /**
 * Implements a binomial queue.
+* Supports a decreaseKey operation. Nodes have parent links, and
+* decreaseKey percolates the new value up, moving items rather than
+* nodes; a handle is a separate object that follows its item from
+* node to node. Items inserted without a handle do not pay for one.
 * Note that all "matching" is based on the compareTo method.
 * @author Mark Allen Weiss
 */
 public final class BinomialQueue<AnyType extends Comparable<? super AnyType>>
+       implements AddressableHeap<AnyType, BinomialQueue<AnyType>>
 {
 /**
 * Construct the binomial queue.
@@ -39,6 +48,7 @@ public BinomialQueue( AnyType item )
    currentSize = 1;
    theTrees = new BinNode[ 1 ];
    theTrees[ 0 ] = new BinNode<>( item, null, null );
+   owner = new HeapOwner( );
 }
 
 
@@ -64,11 +74,28 @@ public void merge( BinomialQueue<AnyType> rhs )
    if( this == rhs )    // Avoid aliasing problems
        return;
 
-   currentSize += rhs.currentSize;
+   meld( rhs.theTrees, rhs.currentSize );
+
+   for( int k = 0; k < rhs.theTrees.length; k++ )
+       rhs.theTrees[ k ] = null;
+   rhs.currentSize = 0;
+   rhs.owner.mergeInto( owner );
+   rhs.owner = new HeapOwner( );
+}
+
+/**
+* Merge a forest of binomial trees into the priority queue.
+* Each tree taken from rhsTrees is nulled out there.
+* @param rhsTrees the tree roots, indexed by rank.
+* @param rhsSize the number of items in rhsTrees.
+*/
+private void meld( BinNode<AnyType> [ ] rhsTrees, int rhsSize )
+{
+   currentSize += rhsSize;
    
    if( currentSize > capacity( ) )
    {
-       int newNumTrees = Math.max( theTrees.length, rhs.theTrees.length ) + 1;
+       int newNumTrees = Math.max( theTrees.length, rhsTrees.length ) + 1;
        expandTheTrees( newNumTrees );
    }
 
@@ -76,7 +103,7 @@ public void merge( BinomialQueue<AnyType> rhs )
    for( int i = 0, j = 1; j <= currentSize; i++, j *= 2 )
    {
        BinNode<AnyType> t1 = theTrees[ i ];
-       BinNode<AnyType> t2 = i < rhs.theTrees.length ? rhs.theTrees[ i ] : null;
+       BinNode<AnyType> t2 = i < rhsTrees.length ? rhsTrees[ i ] : null;
 
        int whichCase = t1 == null ? 0 : 1;
        whichCase += t2 == null ? 0 : 2;
@@ -89,7 +116,7 @@ public void merge( BinomialQueue<AnyType> rhs )
            break;
          case 2: /* Only rhs */
            theTrees[ i ] = t2;
-           rhs.theTrees[ i ] = null;
+           rhsTrees[ i ] = null;
            break;
          case 4: /* Only carry */
            theTrees[ i ] = carry;
@@ -97,7 +124,7 @@ public void merge( BinomialQueue<AnyType> rhs )
            break;
          case 3: /* this and rhs */
            carry = combineTrees( t1, t2 );
-           theTrees[ i ] = rhs.theTrees[ i ] = null;
+           theTrees[ i ] = rhsTrees[ i ] = null;
            break;
          case 5: /* this and carry */
            carry = combineTrees( t1, carry );
@@ -105,19 +132,15 @@ public void merge( BinomialQueue<AnyType> rhs )
            break;
          case 6: /* rhs and carry */
            carry = combineTrees( t2, carry );
-           rhs.theTrees[ i ] = null;
+           rhsTrees[ i ] = null;
            break;
          case 7: /* All three */
            theTrees[ i ] = carry;
            carry = combineTrees( t1, t2 );
-           rhs.theTrees[ i ] = null;
+           rhsTrees[ i ] = null;
            break;
        }
    }
-
-   for( int k = 0; k < rhs.theTrees.length; k++ )
-       rhs.theTrees[ k ] = null;
-   rhs.currentSize = 0;
 }        
 
 /**
@@ -128,18 +151,92 @@ private BinNode<AnyType> combineTrees( BinNode<AnyType> t1, BinNode<AnyType> t2
    if( t1.element.compareTo( t2.element ) > 0 )
        return combineTrees( t2, t1 );
    t2.nextSibling = t1.leftChild;
+   t2.parent = t1;
    t1.leftChild = t2;
    return t1;
 }
 
 /**
 * Insert into the priority queue, maintaining heap order.
-* This implementation is not optimized for O(1) performance.
+* Duplicates are allowed.
 * @param x the item to insert.
 */
 public void insert( AnyType x )
 {
-   merge( new BinomialQueue<>( x ) );
+   insertNode( new BinNode<>( x, null, null ) );
+}
+
+/**
+* Insert into the priority queue, and return a Handle
+* that can be used by decreaseKey.
+* Duplicates are allowed.
+* @param x the item to insert.
+* @return the handle that contains the newly inserted item.
+*/
+public Handle<AnyType> insertHandle( AnyType x )
+{
+   BinNode<AnyType> node = new BinNode<>( x, null, null );
+   node.handle = new BinHandle<>( node, owner );
+   insertNode( node );
+   return node.handle;
+}
+
+/**
+* Change the value of the item stored in the binomial queue.
+* Takes O( log n ) time.
+* @param h any Handle returned by insertHandle.
+* @param newVal the new value, which must be smaller
+*    than the currently stored value.
+* @throws IllegalArgumentException if h is stale or newVal is larger.
+*/
+public void decreaseKey( Handle<AnyType> h, AnyType newVal )
+{
+   BinHandle<AnyType> handle = (BinHandle<AnyType>) h;
+   BinNode<AnyType> x = handle.node;
+
+   if( x == null || handle.owner.current( ) != owner )
+       throw new IllegalArgumentException( "handle is no longer in the heap" );
+   if( x.element.compareTo( newVal ) < 0 )
+       throw new IllegalArgumentException( "new value is larger" );
+   handle.owner = owner;
+
+       // Percolate up, moving each larger parent item down a level
+   for( ; x.parent != null && newVal.compareTo( x.parent.element ) < 0; x = x.parent )
+   {
+       x.element = x.parent.element;
+       x.handle = x.parent.handle;
+       if( x.handle != null )
+           x.handle.node = x;
+   }
+   x.element = newVal;
+   x.handle = handle;
+   handle.node = x;
+}
+
+/**
+* Insert a node holding one item.
+* Works like incrementing a binary counter: the new one-node tree
+* is carried up through the occupied ranks, so insert is amortized
+* O(1) and allocates only the node.
+*/
+private void insertNode( BinNode<AnyType> carry )
+{
+   currentSize++;
+
+   for( int i = 0; ; i++ )
+   {
+       if( i == theTrees.length )
+           expandTheTrees( i + 1 );
+
+       if( theTrees[ i ] == null )
+       {
+           theTrees[ i ] = carry;
+           return;
+       }
+
+       carry = combineTrees( theTrees[ i ], carry );
+       theTrees[ i ] = null;
+   }
 }
 
 /**
@@ -189,26 +286,29 @@ public AnyType deleteMin( )
 
    int minIndex = findMinIndex( );
    AnyType minItem = theTrees[ minIndex ].element;
+   if( theTrees[ minIndex ].handle != null )
+       theTrees[ minIndex ].handle.node = null;   // So decreaseKey can detect stale Handle
 
    BinNode<AnyType> deletedTree = theTrees[ minIndex ].leftChild;
 
-   // Construct H''
-   BinomialQueue<AnyType> deletedQueue = new BinomialQueue<>( );
-   deletedQueue.expandTheTrees( minIndex + 1 );
+   // Construct H'' in the scratch forest, which meld leaves empty
+   if( scratchTrees == null || scratchTrees.length < theTrees.length )
+       scratchTrees = new BinNode[ theTrees.length ];
    
-   deletedQueue.currentSize = ( 1 << minIndex ) - 1;
+   int deletedSize = ( 1 << minIndex ) - 1;
    for( int j = minIndex - 1; j >= 0; j-- )
    {
-       deletedQueue.theTrees[ j ] = deletedTree;
+       scratchTrees[ j ] = deletedTree;
        deletedTree = deletedTree.nextSibling;
-       deletedQueue.theTrees[ j ].nextSibling = null;
+       scratchTrees[ j ].nextSibling = null;
+       scratchTrees[ j ].parent = null;
    }
 
    // Construct H'
    theTrees[ minIndex ] = null;
-   currentSize -= deletedQueue.currentSize + 1;
+   currentSize -= deletedSize + 1;
 
-   merge( deletedQueue );
+   meld( scratchTrees, deletedSize );
    
    return minItem;
 }
@@ -224,9 +324,11 @@ public boolean isEmpty( )
 
 /**
 * Make the priority queue logically empty.
+* Handles issued before are no longer accepted by decreaseKey.
 */
 public void makeEmpty( )
 {
+   owner = new HeapOwner( );
    currentSize = 0;
    for( int i = 0; i < theTrees.length; i++ )
        theTrees[ i ] = null;
@@ -250,12 +352,40 @@ private static class BinNode<AnyType>
    AnyType          element;     // The data in the node
    BinNode<AnyType> leftChild;   // Left child
    BinNode<AnyType> nextSibling; // Right child
+   BinNode<AnyType> parent;      // Null for a root
+   BinHandle<AnyType> handle;    // Handle for element, if any
+}
+
+/**
+* Handle for an item; follows the item as decreaseKey moves it.
+*/
+private static class BinHandle<AnyType> implements Handle<AnyType>
+{
+   BinHandle( BinNode<AnyType> theNode, HeapOwner theOwner )
+   {
+       node  = theNode;
+       owner = theOwner;
+   }
+
+   /**
+    * Returns the value stored at this handle.
+    * @return the value, or null if it has been removed.
+    */
+   public AnyType getValue( )
+   {
+       return node == null ? null : node.element;
+   }
+
+   BinNode<AnyType> node;   // Node holding the item; null once deleted
+   HeapOwner        owner;  // Issuing heap, or one merged from
 }
 
 private static final int DEFAULT_TREES = 1;
 
 private int currentSize;                // # items in priority queue
 private BinNode<AnyType> [ ] theTrees;  // An array of tree roots
+private BinNode<AnyType> [ ] scratchTrees; // Reused by deleteMin
+private HeapOwner owner;                 // Checked by decreaseKey
 
 
 /**
@@ -266,6 +396,21 @@ private int capacity( )
    return ( 1 << theTrees.length ) - 1;
 }
 
+   /**
+    * Check that h rejects a stale handle; used by main.
+    */
+private static void checkStale( BinomialQueue<Integer> h, Handle<Integer> stale )
+{
+   try
+   {
+       h.decreaseKey( stale, 1 );
+       System.out.println( "Oops! stale handle accepted" );
+   }
+   catch( IllegalArgumentException e )
+   {
+   }
+}
+
 public static void main( String [ ] args )
 {
    int numItems = 10000;
@@ -286,6 +431,43 @@ public static void main( String [ ] args )
        if( h.deleteMin( ) != i )
            System.out.println( "Oops! " + i );
 
+       // decreaseKey, across a merge, and stale handles
+   @SuppressWarnings( "unchecked" )
+   Handle<Integer> [ ] p = (Handle<Integer> [ ]) new Handle<?>[ numItems ];
+   for( i = 0; i < numItems; i++ )
+       p[ i ] = ( i % 2 == 0 ? h : h1 ).insertHandle( numItems + i );
+   h.merge( h1 );
+   for( i = 0; i < numItems; i += 3 )
+       h.decreaseKey( p[ i ], p[ i ].getValue( ) - numItems - i );
+   int last = Integer.MIN_VALUE;
+   for( i = 0; i < numItems; i++ )
+   {
+       int x = h.deleteMin( );
+       if( x < last || x != ( i < ( numItems + 2 ) / 3 ? 0 : x ) )
+           System.out.println( "Oops! decreaseKey " + x );
+       last = x;
+   }
+   for( i = 0; i < numItems; i++ )
+       if( p[ i ].getValue( ) != null )
+           System.out.println( "Oops! live handle " + i );
+
+   Handle<Integer> old = h.insertHandle( 7 );
+   h.makeEmpty( );
+   Handle<Integer> other = h1.insertHandle( 9 );
+   checkStale( h, old );
+   checkStale( h, other );
+   checkStale( h, p[ 0 ] );
+
    System.out.println( "Check done." );
+
+   long startTime = System.nanoTime( );
+   for( i = 0; i < numItems * 100; i++ )
+       h.insert( i );
+   System.out.println( "The time for " + numItems * 100 + " inserts is " + ( System.nanoTime( ) - startTime ) );
+
+   startTime = System.nanoTime( );
+   while( !h.isEmpty( ) )
+       h.deleteMin( );
+   System.out.println( "The time for " + numItems * 100 + " deletes is " + ( System.nanoTime( ) - startTime ) );
 }
 }
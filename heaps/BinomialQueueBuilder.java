@@ -0,0 +1,184 @@
+package heaps;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+
+//BinomialQueueBuilder class
+//
+//CONSTRUCTION: with no parameters
+//
+//******************PUBLIC OPERATIONS*********************
+//void mergeIn( rhs )    --> Absorb rhs; safe from any thread
+//BinomialQueue build( ) --> Return everything merged in so far
+//static BinomialQueue build( items, pool ) --> Build in parallel
+//******************ERRORS********************************
+//None
+
+/**
+* Builds BinomialQueues from many threads.
+* The static build splits an array across a ForkJoinPool: each task
+* below a cutoff inserts its slice into its own queue, and results
+* are melded pairwise on the way back up, each meld costing
+* O( log N ). An instance collects whole queues handed over by
+* producer threads, so each producer pays one short locked meld per
+* batch instead of one locked insert per item.
+*/
+public class BinomialQueueBuilder<AnyType extends Comparable<? super AnyType>>
+{
+/**
+* Merge rhs into the queue being built.
+* rhs becomes empty. Safe to call from any thread.
+* @param rhs the queue to absorb; not shared with other threads.
+*/
+public void mergeIn( BinomialQueue<AnyType> rhs )
+{
+   synchronized( lock )
+   {
+       result.merge( rhs );
+   }
+}
+
+/**
+* Return the queue built so far, and start a new, empty one.
+* @return every item merged in since the last call.
+*/
+public BinomialQueue<AnyType> build( )
+{
+   synchronized( lock )
+   {
+       BinomialQueue<AnyType> built = result;
+       result = new BinomialQueue<>( );
+       return built;
+   }
+}
+
+/**
+* Build a queue holding items, in parallel.
+* @param items the items; the array is not changed.
+* @param pool the pool to run on.
+* @return a new queue holding every item.
+*/
+public static <AnyType extends Comparable<? super AnyType>>
+BinomialQueue<AnyType> build( AnyType [ ] items, ForkJoinPool pool )
+{
+   return pool.invoke( new BuildTask<>( items, 0, items.length ) );
+}
+
+private final Object lock = new Object( );
+private BinomialQueue<AnyType> result = new BinomialQueue<>( );
+
+private static final int CUTOFF = 1 << 13;   // Items built by one task
+
+private static class BuildTask<AnyType extends Comparable<? super AnyType>>
+       extends RecursiveTask<BinomialQueue<AnyType>>
+{
+   BuildTask( AnyType [ ] items, int low, int high )
+   {
+       this.items = items;
+       this.low = low;
+       this.high = high;
+   }
+
+   protected BinomialQueue<AnyType> compute( )
+   {
+       if( high - low <= CUTOFF )
+       {
+           BinomialQueue<AnyType> h = new BinomialQueue<>( );
+           for( int i = low; i < high; i++ )
+               h.insert( items[ i ] );
+           return h;
+       }
+
+       int mid = ( low + high ) >>> 1;
+       BuildTask<AnyType> left = new BuildTask<>( items, low, mid );
+       left.fork( );
+       BinomialQueue<AnyType> h = new BuildTask<>( items, mid, high ).compute( );
+       h.merge( left.join( ) );
+       return h;
+   }
+
+   private static final long serialVersionUID = 1L;
+
+   private final AnyType [ ] items;
+   private final int low;
+   private final int high;
+}
+
+   // Test program; compares against a sequential build
+public static void main( String [ ] args ) throws InterruptedException
+{
+   int numItems = 4000000;
+   int rounds = 5;
+   int threads = Runtime.getRuntime( ).availableProcessors( );
+   Random rnd = new Random( 100 );
+   Integer [ ] items = new Integer[ numItems ];
+   for( int i = 0; i < numItems; i++ )
+       items[ i ] = rnd.nextInt( );
+
+   ForkJoinPool pool = new ForkJoinPool( threads );
+   long parallelTime = 0, sequentialTime = 0;
+   for( int r = 0; r <= rounds; r++ )
+   {
+       long startTime = System.nanoTime( );
+       BinomialQueue<Integer> p = build( items, pool );
+       long t1 = System.nanoTime( );
+       BinomialQueue<Integer> s = new BinomialQueue<>( );
+       for( Integer x : items )
+           s.insert( x );
+       long t2 = System.nanoTime( );
+
+       if( r == 0 )
+           for( int i = 0; i < numItems; i++ )
+               if( !p.deleteMin( ).equals( s.deleteMin( ) ) )
+               {
+                   System.out.println( "Oops! " + i );
+                   break;
+               }
+       if( r > 0 )
+       {
+           parallelTime += t1 - startTime;
+           sequentialTime += t2 - t1;
+       }
+   }
+   pool.shutdown( );
+
+   System.out.println( "The time to build a queue of " + numItems + " items on "
+           + threads + " threads:" );
+   System.out.println( "  parallel   " + parallelTime / rounds );
+   System.out.println( "  sequential " + sequentialTime / rounds );
+
+       // Producers hand over batches of 1000
+   final BinomialQueueBuilder<Integer> builder = new BinomialQueueBuilder<>( );
+   Thread [ ] producers = new Thread[ 4 ];
+   for( int t = 0; t < producers.length; t++ )
+   {
+       final int first = t;
+       producers[ t ] = new Thread( new Runnable( )
+       {
+           public void run( )
+           {
+               BinomialQueue<Integer> batch = new BinomialQueue<>( );
+               for( int i = first; i < 100000; i += 4 )
+               {
+                   batch.insert( i );
+                   if( i % 4000 == first )
+                       builder.mergeIn( batch );
+               }
+               builder.mergeIn( batch );
+           }
+       } );
+       producers[ t ].start( );
+   }
+   for( Thread t : producers )
+       t.join( );
+
+   BinomialQueue<Integer> h = builder.build( );
+   for( int i = 0; i < 100000; i++ )
+       if( h.deleteMin( ) != i )
+           System.out.println( "Oops! producers " + i );
+   if( !h.isEmpty( ) || !builder.build( ).isEmpty( ) )
+       System.out.println( "Oops! producers not empty" );
+}
+}
@@ -0,0 +1,264 @@
+package heaps;
+
+import java.util.Random;
+
+
+//DaryHeap class
+//
+//CONSTRUCTION: with the number of children per node d,
+//          and an optional capacity (that defaults to 10)
+//          or an array containing initial items
+//
+//******************PUBLIC OPERATIONS*********************
+//void insert( x )       --> Insert x
+//Comparable deleteMin( )--> Return and remove smallest item
+//Comparable findMin( )  --> Return smallest item
+//boolean isEmpty( )     --> Return true if empty; else false
+//int size( )            --> Return number of items
+//void makeEmpty( )      --> Remove all items
+//******************ERRORS********************************
+//findMin and deleteMin return null if empty, as in BinaryHeap
+
+/**
+* Implements a d-ary heap.
+* A larger d gives a tree of log_d n levels instead of log_2 n, so
+* deleteMin touches fewer levels at the price of d - 1 compares per
+* level, and insert gets cheaper outright.
+* <p>
+* The root is stored at index d - 1, which puts the children of the
+* node at index i at indices d * ( i - d + 2 ) and up: each group of
+* siblings starts at an index that is a multiple of d, so a
+* percolateDown level scans one aligned block. The JVM does not expose
+* the address of array data, so the alignment is only relative to the
+* start of the array. For d = 2 this is the same layout as BinaryHeap.
+* Note that all "matching" is based on the compareTo method.
+*/
+public class DaryHeap<AnyType extends Comparable<? super AnyType>>
+{
+/**
+* Construct the d-ary heap.
+* @param d the number of children per node; at least 2.
+*/
+public DaryHeap( int d )
+{
+   this( d, DEFAULT_CAPACITY );
+}
+
+/**
+* Construct the d-ary heap.
+* @param d the number of children per node; at least 2.
+* @param capacity the capacity of the heap.
+*/
+public DaryHeap( int d, int capacity )
+{
+   if( d < 2 )
+       throw new IllegalArgumentException( "d must be at least 2: " + d );
+   this.d = d;
+   root = d - 1;
+   currentSize = 0;
+   array = (AnyType[]) new Comparable[ root + capacity ];
+}
+
+/**
+* Construct the d-ary heap given an array of items.
+* @param d the number of children per node; at least 2.
+* @param items the initial items.
+*/
+public DaryHeap( int d, AnyType [ ] items )
+{
+   this( d, ( items.length + 2 ) * 11 / 10 );
+
+   currentSize = items.length;
+   int i = root;
+   for( AnyType item : items )
+       array[ i++ ] = item;
+   buildHeap( );
+}
+
+/**
+* Insert into the priority queue, maintaining heap order.
+* Duplicates are allowed.
+* @param x the item to insert.
+*/
+public void insert( AnyType x )
+{
+   if( root + currentSize == array.length )
+       enlargeArray( array.length * 2 );
+
+       // Percolate up
+   int hole = root + currentSize++;
+   for( ; hole > root && x.compareTo( array[ parent( hole ) ] ) < 0; hole = parent( hole ) )
+       array[ hole ] = array[ parent( hole ) ];
+   array[ hole ] = x;
+}
+
+
+private void enlargeArray( int newSize )
+{
+       AnyType [] old = array;
+       array = (AnyType []) new Comparable[ newSize ];
+       for( int i = root; i < root + currentSize; i++ )
+           array[ i ] = old[ i ];
+}
+
+/**
+* Find the smallest item in the priority queue.
+* @return the smallest item, or null if empty.
+*/
+public AnyType findMin( )
+{
+   if( isEmpty( ) )
+  	 return null;
+   return array[ root ];
+}
+
+/**
+* Remove the smallest item from the priority queue.
+* @return the smallest item, or null if empty.
+*/
+public AnyType deleteMin( )
+{
+   if( isEmpty( ) )
+  	 return null;
+
+   AnyType minItem = array[ root ];
+   int last = root + --currentSize;
+   array[ root ] = array[ last ];
+   array[ last ] = null;
+   if( currentSize > 0 )
+       percolateDown( root );
+
+   return minItem;
+}
+
+/**
+* Establish heap order property from an arbitrary
+* arrangement of items. Runs in linear time.
+*/
+private void buildHeap( )
+{
+   if( currentSize < 2 )
+       return;
+   for( int i = parent( root + currentSize - 1 ); i >= root; i-- )
+       percolateDown( i );
+}
+
+/**
+* Test if the priority queue is logically empty.
+* @return true if empty, false otherwise.
+*/
+public boolean isEmpty( )
+{
+   return currentSize == 0;
+}
+
+/**
+* Get the number of items in the priority queue.
+* @return the size.
+*/
+public int size( )
+{
+   return currentSize;
+}
+
+/**
+* Make the priority queue logically empty.
+*/
+public void makeEmpty( )
+{
+   for( int i = root; i < root + currentSize; i++ )
+       array[ i ] = null;
+   currentSize = 0;
+}
+
+private static final int DEFAULT_CAPACITY = 10;
+
+private final int d;          // Children per node
+private final int root;       // Index of the root, d - 1
+private int currentSize;      // Number of elements in heap
+private AnyType [ ] array;    // The heap array
+
+/**
+* Return the index of the parent of the node at index i.
+*/
+private int parent( int i )
+{
+   return i / d + d - 2;
+}
+
+/**
+* Return the index of the first child of the node at index i.
+*/
+private int firstChild( int i )
+{
+   return d * ( i - d + 2 );
+}
+
+/**
+* Internal method to percolate down in the heap.
+* @param hole the index at which the percolate begins.
+*/
+private void percolateDown( int hole )
+{
+   int last = root + currentSize - 1;
+   AnyType tmp = array[ hole ];
+
+   for( int child; ( child = firstChild( hole ) ) <= last; hole = child )
+   {
+       int end = Math.min( child + d - 1, last );
+       for( int i = child + 1; i <= end; i++ )
+           if( array[ i ].compareTo( array[ child ] ) < 0 )
+               child = i;
+       if( array[ child ].compareTo( tmp ) < 0 )
+           array[ hole ] = array[ child ];
+       else
+           break;
+   }
+   array[ hole ] = tmp;
+}
+
+   // Test program; times insert and deleteMin for several d
+public static void main( String [ ] args )
+{
+   int numItems = 1000000;
+   int rounds = 5;
+   Random rnd = new Random( 100 );
+   Integer [ ] items = new Integer[ numItems ];
+   for( int i = 0; i < numItems; i++ )
+       items[ i ] = rnd.nextInt( );
+
+   for( int d = 2; d <= 16; d *= 2 )
+   {
+       DaryHeap<Integer> h = new DaryHeap<>( d, numItems );
+       long insertTime = 0, deleteTime = 0, buildTime = 0;
+
+       for( int r = 0; r < rounds; r++ )
+       {
+           long startTime = System.nanoTime( );
+           for( int j = 0; j < numItems; j++ )
+               h.insert( items[ j ] );
+           insertTime += System.nanoTime( ) - startTime;
+
+           startTime = System.nanoTime( );
+           int last = Integer.MIN_VALUE;
+           while( !h.isEmpty( ) )
+           {
+               int x = h.deleteMin( );
+               if( x < last )
+                   System.out.println( "Oops! " + x );
+               last = x;
+           }
+           deleteTime += System.nanoTime( ) - startTime;
+
+           startTime = System.nanoTime( );
+           DaryHeap<Integer> built = new DaryHeap<>( d, items );
+           buildTime += System.nanoTime( ) - startTime;
+           if( built.size( ) != numItems || built.findMin( ) > built.deleteMin( ) )
+               System.out.println( "Oops! buildHeap" );
+       }
+
+       System.out.println( "d = " + d + ": insert " + insertTime / rounds
+               + ", deleteMin " + deleteTime / rounds + ", buildHeap " + buildTime / rounds );
+   }
+}
+}
@@ -0,0 +1,396 @@
+package heaps;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import serialization.ChunkedReader;
+import serialization.ChunkedWriter;
+import serialization.ElementCodec;
+import serialization.IntegerCodec;
+
+
+//ExternalPriorityQueue class
+//
+//CONSTRUCTION: with the number of items to keep in memory,
+//          a codec for the items, a directory for run files
+//          and an optional cap on the number of runs
+//
+//******************PUBLIC OPERATIONS*********************
+//void insert( x )       --> Insert x
+//Comparable deleteMin( )--> Return and remove smallest item
+//Comparable findMin( )  --> Return smallest item
+//boolean isEmpty( )     --> Return true if empty; else false
+//long size( )           --> Return number of items
+//int runs( )            --> Return number of runs on disk
+//void close( )          --> Delete all run files
+//******************ERRORS********************************
+//findMin and deleteMin return null if empty;
+//I/O failures are thrown as IOException, after which
+//the queue should only be closed
+
+/**
+* Implements a priority queue that holds more items than fit in memory.
+* New items go into a BinaryHeap of bounded capacity. When it is full,
+* its contents are drained in sorted order to a run file through a
+* chunked channel writer, leaving the heap empty. deleteMin takes the
+* smaller of the heap minimum and the smallest run head; the run heads
+* are kept in a second, small heap. When the number of runs reaches
+* the cap, the oldest half of them are merged into one run before the
+* next spill, so the fan-in of deleteMin stays bounded. All disk I/O
+* is sequential, and memory use is the heap capacity plus one chunk
+* buffer per run.
+* Note that all "matching" is based on the compareTo method.
+*/
+public class ExternalPriorityQueue<AnyType extends Comparable<? super AnyType>> implements Closeable
+{
+/**
+* Construct the queue.
+* @param memoryCapacity the number of items to hold in memory.
+* @param codec the codec for writing items to run files.
+* @param dir the directory for run files.
+*/
+public ExternalPriorityQueue( int memoryCapacity, ElementCodec<AnyType> codec, Path dir )
+{
+   this( memoryCapacity, codec, dir, DEFAULT_MAX_RUNS );
+}
+
+/**
+* Construct the queue.
+* @param memoryCapacity the number of items to hold in memory.
+* @param codec the codec for writing items to run files.
+* @param dir the directory for run files.
+* @param maxRuns the most runs to keep open at once; at least 2.
+*/
+public ExternalPriorityQueue( int memoryCapacity, ElementCodec<AnyType> codec, Path dir, int maxRuns )
+{
+   if( memoryCapacity < 1 )
+       throw new IllegalArgumentException( "memoryCapacity must be positive: " + memoryCapacity );
+   if( maxRuns < 2 )
+       throw new IllegalArgumentException( "maxRuns must be at least 2: " + maxRuns );
+   this.memoryCapacity = memoryCapacity;
+   this.maxRuns = maxRuns;
+   this.codec = codec;
+   this.dir = dir;
+   heap = new BinaryHeap<>( memoryCapacity );
+   heap.setMinLoad( 0 );   // The heap refills after every spill; keep its array
+   runs = new BinaryHeap<>( );
+   spillBuffer = (AnyType[]) new Comparable[ Math.min( memoryCapacity, SPILL_BATCH ) ];
+}
+
+/**
+* Insert into the priority queue.
+* Duplicates are allowed.
+* @param x the item to insert.
+*/
+public void insert( AnyType x ) throws IOException
+{
+   if( heap.size( ) == memoryCapacity )
+       spill( );
+   heap.insert( x );
+   theSize++;
+}
+
+/**
+* Find the smallest item in the priority queue.
+* @return the smallest item, or null if empty.
+*/
+public AnyType findMin( )
+{
+   AnyType h = heap.findMin( );
+   Run<AnyType> r = runs.findMin( );
+
+   if( r == null || ( h != null && h.compareTo( r.head ) <= 0 ) )
+       return h;
+   return r.head;
+}
+
+/**
+* Remove the smallest item from the priority queue.
+* @return the smallest item, or null if empty.
+*/
+public AnyType deleteMin( ) throws IOException
+{
+   if( isEmpty( ) )
+  	 return null;
+
+   theSize--;
+   AnyType h = heap.findMin( );
+   Run<AnyType> r = runs.findMin( );
+   if( r == null || ( h != null && h.compareTo( r.head ) <= 0 ) )
+       return heap.deleteMin( );
+
+   runs.deleteMin( );
+   AnyType minItem = r.head;
+   if( r.advance( ) )
+       runs.insert( r );
+   else
+   {
+       r.close( );
+       openRuns.remove( r );
+   }
+   return minItem;
+}
+
+/**
+* Test if the priority queue is logically empty.
+* @return true if empty, false otherwise.
+*/
+public boolean isEmpty( )
+{
+   return theSize == 0;
+}
+
+/**
+* Get the number of items, in memory and on disk.
+* @return the size.
+*/
+public long size( )
+{
+   return theSize;
+}
+
+/**
+* Get the number of runs on disk that still hold items.
+* @return the number of runs.
+*/
+public int runs( )
+{
+   return openRuns.size( );
+}
+
+/**
+* Delete all run files. The queue is empty afterwards.
+*/
+public void close( ) throws IOException
+{
+   IOException failure = null;
+   for( Run<AnyType> r : openRuns )
+       try
+       {
+           r.close( );
+       }
+       catch( IOException e )
+       {
+           failure = e;
+       }
+   openRuns.clear( );
+   runs.makeEmpty( );
+   heap.makeEmpty( );
+   theSize = 0;
+
+   if( failure != null )
+       throw failure;
+}
+
+/**
+* Drain the in-memory heap, smallest first, into a new run file.
+*/
+private void spill( ) throws IOException
+{
+   if( openRuns.size( ) >= maxRuns )
+       mergeOldestRuns( );
+   addRun( writeRun( heap.size( ), null ) );
+}
+
+/**
+* Merge the oldest half of the runs into one new run.
+*/
+private void mergeOldestRuns( ) throws IOException
+{
+   List<Run<AnyType>> oldest = openRuns.subList( 0, Math.max( 2, openRuns.size( ) / 2 ) );
+   BinaryHeap<Run<AnyType>> merging = new BinaryHeap<>( );
+   long count = 0;
+   for( Run<AnyType> r : oldest )
+   {
+       merging.insert( r );
+       count += r.remaining + 1;   // Plus the head already read
+   }
+
+   Run<AnyType> merged = writeRun( count, merging );
+   oldest.clear( );
+   runs.makeEmpty( );
+   for( Run<AnyType> r : openRuns )
+       runs.insert( r );
+   addRun( merged );
+}
+
+/**
+* Write a sorted run file and open it for reading.
+* If anything fails, the partial file is closed and deleted.
+* @param count the number of items to be written.
+* @param merging the runs to merge, or null to drain the heap.
+* @return the new run, before its first item is read.
+*/
+private Run<AnyType> writeRun( long count, BinaryHeap<Run<AnyType>> merging ) throws IOException
+{
+   Path file = Files.createTempFile( dir, "epq", ".run" );
+   Run<AnyType> r = null;
+
+   try
+   {
+       try( FileChannel ch = FileChannel.open( file, StandardOpenOption.WRITE ) )
+       {
+           ChunkedWriter out = new ChunkedWriter( ch );
+           if( merging == null )
+               drainHeap( out );
+           else
+               drainRuns( merging, out );
+           out.flush( );
+       }
+       r = new Run<>( file, count, codec );
+   }
+   finally
+   {
+       if( r == null )
+           Files.deleteIfExists( file );
+   }
+   return r;
+}
+
+private void drainHeap( ChunkedWriter out ) throws IOException
+{
+   for( int n; ( n = heap.deleteMin( spillBuffer.length, spillBuffer ) ) > 0; )
+       for( int i = 0; i < n; i++ )
+       {
+           codec.encode( spillBuffer[ i ], out );
+           spillBuffer[ i ] = null;
+       }
+}
+
+/**
+* Write the items of the runs in order, closing each run once empty.
+*/
+private void drainRuns( BinaryHeap<Run<AnyType>> merging, ChunkedWriter out ) throws IOException
+{
+   while( !merging.isEmpty( ) )
+   {
+       Run<AnyType> r = merging.deleteMin( );
+       codec.encode( r.head, out );
+       if( r.advance( ) )
+           merging.insert( r );
+       else
+           r.close( );
+   }
+}
+
+private void addRun( Run<AnyType> r ) throws IOException
+{
+   openRuns.add( r );
+   if( r.advance( ) )
+       runs.insert( r );
+}
+
+/**
+* A sorted run on disk, ordered by its next item.
+*/
+private static class Run<AnyType extends Comparable<? super AnyType>> implements Comparable<Run<AnyType>>
+{
+   Run( Path file, long count, ElementCodec<AnyType> codec ) throws IOException
+   {
+       this.file = file;
+       this.remaining = count;
+       this.codec = codec;
+       ch = FileChannel.open( file, StandardOpenOption.READ, StandardOpenOption.DELETE_ON_CLOSE );
+       in = new ChunkedReader( ch );
+   }
+
+   /**
+    * Read the next item into head.
+    * @return false if the run is exhausted.
+    */
+   boolean advance( ) throws IOException
+   {
+       if( remaining == 0 )
+       {
+           head = null;
+           return false;
+       }
+       remaining--;
+       head = codec.decode( in );
+       return true;
+   }
+
+   void close( ) throws IOException
+   {
+       ch.close( );
+       Files.deleteIfExists( file );
+   }
+
+   public int compareTo( Run<AnyType> rhs )
+   {
+       return head.compareTo( rhs.head );
+   }
+
+   final Path file;
+   final FileChannel ch;
+   final ChunkedReader in;
+   final ElementCodec<AnyType> codec;
+   long remaining;       // Items not yet read
+   AnyType head;         // Smallest item not yet returned
+}
+
+private static final int SPILL_BATCH = 4096;
+private static final int DEFAULT_MAX_RUNS = 64;
+
+private final int memoryCapacity;
+private final int maxRuns;
+private final ElementCodec<AnyType> codec;
+private final Path dir;
+private final BinaryHeap<AnyType> heap;        // Items in memory
+private final BinaryHeap<Run<AnyType>> runs;   // Runs by head item
+private final List<Run<AnyType>> openRuns = new ArrayList<>( );
+private final AnyType [ ] spillBuffer;
+private long theSize;
+
+   // Test program
+public static void main( String [ ] args ) throws IOException
+{
+   int numItems = 5000000;
+   int memoryCapacity = 100000;
+   Random rnd = new Random( 100 );
+
+   System.out.println( "Starting check." );
+
+   int maxRuns = 16;        // Below numItems / memoryCapacity, to exercise merging
+   try( ExternalPriorityQueue<Integer> q = new ExternalPriorityQueue<>( memoryCapacity,
+           new IntegerCodec( ), Paths.get( System.getProperty( "java.io.tmpdir" ) ), maxRuns ) )
+   {
+       long startTime = System.nanoTime( );
+       for( int i = 0; i < numItems; i++ )
+           q.insert( rnd.nextInt( ) );
+       System.out.println( "The time for " + numItems + " inserts is " + ( System.nanoTime( ) - startTime )
+               + ", " + q.runs( ) + " runs" );
+
+           // Interleave inserts and deletes, as a live queue would
+       int last = Integer.MIN_VALUE;
+       startTime = System.nanoTime( );
+       for( int i = 0; i < numItems / 2; i++ )
+       {
+           int x = q.deleteMin( );
+           if( x < last )
+               System.out.println( "Oops! " + x );
+           last = x;
+           if( i % 2 == 0 )
+               q.insert( last > Integer.MAX_VALUE - 1000 ? last : last + rnd.nextInt( 1000 ) );
+       }
+       while( !q.isEmpty( ) )
+       {
+           int x = q.deleteMin( );
+           if( x < last )
+               System.out.println( "Oops! " + x );
+           last = x;
+       }
+       System.out.println( "The time to drain is " + ( System.nanoTime( ) - startTime ) );
+   }
+
+   System.out.println( "Check done." );
+}
+}
@@ -0,0 +1,465 @@
+package heaps;
+
+import java.util.Random;
+
+
+//FibonacciHeap class
+//
+//CONSTRUCTION: with no initializer
+//
+//******************PUBLIC OPERATIONS*********************
+//void insert( x )       --> Insert x
+//Handle insertHandle( x ) --> Insert x, return its handle
+//Comparable deleteMin( )--> Return and remove smallest item
+//Comparable findMin( )  --> Return smallest item
+//void decreaseKey( h, newVal ) --> Lower the value of item at h
+//void merge( rhs )      --> Absorb rhs into this heap
+//boolean isEmpty( )     --> Return true if empty; else false
+//int size( )            --> Return number of items
+//void makeEmpty( )      --> Remove all items
+//******************ERRORS********************************
+//findMin and deleteMin return null if empty;
+//decreaseKey throws IllegalArgumentException for bad arguments,
+//including handles from before makeEmpty or from another heap
+
+/**
+* Implements a Fibonacci heap.
+* insert, merge and decreaseKey take O(1) amortized time and
+* deleteMin takes O(log n) amortized time. Roots and siblings are
+* kept in circular doubly linked lists; deleteMin consolidates the
+* root list by degree in a reused array.
+* Note that all "matching" is based on the compareTo method.
+*/
+public class FibonacciHeap<AnyType extends Comparable<? super AnyType>>
+       implements AddressableHeap<AnyType, FibonacciHeap<AnyType>>
+{
+/**
+* Construct the Fibonacci heap.
+*/
+public FibonacciHeap( )
+{
+   min = null;
+   theSize = 0;
+}
+
+/**
+* Insert into the priority queue.
+* Duplicates are allowed.
+* @param x the item to insert.
+*/
+public void insert( AnyType x )
+{
+   insertHandle( x );
+}
+
+/**
+* Insert into the priority queue, and return a Handle
+* that can be used by decreaseKey.
+* Duplicates are allowed.
+* @param x the item to insert.
+* @return the handle that contains the newly inserted item.
+*/
+public Handle<AnyType> insertHandle( AnyType x )
+{
+   FibNode<AnyType> newNode = new FibNode<>( x, owner );
+
+   addRoot( newNode );
+   theSize++;
+   return newNode;
+}
+
+/**
+* Find the smallest item in the priority queue.
+* @return the smallest item, or null if empty.
+*/
+public AnyType findMin( )
+{
+   if( isEmpty( ) )
+  	 return null;
+   return min.element;
+}
+
+/**
+* Remove the smallest item from the priority queue.
+* @return the smallest item, or null if empty.
+*/
+public AnyType deleteMin( )
+{
+   if( isEmpty( ) )
+  	 return null;
+
+   FibNode<AnyType> z = min;
+   AnyType x = z.element;
+
+       // Move the children of z to the root list
+   FibNode<AnyType> child = z.child;
+   if( child != null )
+   {
+       FibNode<AnyType> c = child;
+       do
+       {
+           c.parent = null;
+           c = c.right;
+       } while( c != child );
+       splice( z, child );
+       z.child = null;
+   }
+
+       // Unlink z from the root list
+   if( z.right == z )
+       min = null;
+   else
+   {
+       z.left.right = z.right;
+       z.right.left = z.left;
+       min = z.right;
+       consolidate( );
+   }
+
+   z.element = null;   // So decreaseKey can detect stale Handle
+   z.left = z.right = z;
+   theSize--;
+   return x;
+}
+
+/**
+* Change the value of the item stored in the heap.
+* @param h any Handle returned by insertHandle.
+* @param newVal the new value, which must be smaller
+*    than the currently stored value.
+* @throws IllegalArgumentException if h is stale or newVal is larger.
+*/
+public void decreaseKey( Handle<AnyType> h, AnyType newVal )
+{
+   FibNode<AnyType> x = (FibNode<AnyType>) h;
+
+   if( x.element == null || x.owner.current( ) != owner )
+       throw new IllegalArgumentException( "handle is no longer in the heap" );
+   if( x.element.compareTo( newVal ) < 0 )
+       throw new IllegalArgumentException( "new value is larger" );
+   x.owner = owner;
+   x.element = newVal;
+
+   FibNode<AnyType> y = x.parent;
+   if( y != null && x.element.compareTo( y.element ) < 0 )
+   {
+       cut( x, y );
+       cascadingCut( y );
+   }
+   if( x.element.compareTo( min.element ) < 0 )
+       min = x;
+}
+
+/**
+* Merge rhs into the priority queue.
+* rhs becomes empty. rhs must be different from this.
+* Handles into rhs remain valid in this heap.
+* @param rhs the other Fibonacci heap.
+*/
+public void merge( FibonacciHeap<AnyType> rhs )
+{
+   if( this == rhs || rhs.min == null )    // Avoid aliasing problems
+       return;
+
+   if( min == null )
+       min = rhs.min;
+   else
+   {
+       splice( min, rhs.min );
+       if( rhs.min.element.compareTo( min.element ) < 0 )
+           min = rhs.min;
+   }
+   theSize += rhs.theSize;
+
+   rhs.owner.mergeInto( owner );
+   rhs.owner = new HeapOwner( );
+   rhs.min = null;
+   rhs.theSize = 0;
+}
+
+/**
+* Test if the priority queue is logically empty.
+* @return true if empty, false otherwise.
+*/
+public boolean isEmpty( )
+{
+   return min == null;
+}
+
+/**
+* Returns number of items stored in the priority queue.
+* @return size of the priority queue.
+*/
+public int size( )
+{
+   return theSize;
+}
+
+/**
+* Make the priority queue logically empty.
+* Handles issued before are no longer accepted by decreaseKey.
+*/
+public void makeEmpty( )
+{
+   owner = new HeapOwner( );
+   min = null;
+   theSize = 0;
+}
+
+/**
+* Private static class for use with FibonacciHeap.
+*/
+private static class FibNode<AnyType> implements Handle<AnyType>
+{
+   FibNode( AnyType theElement, HeapOwner theOwner )
+   {
+       element = theElement;
+       owner = theOwner;
+       left = right = this;
+   }
+
+   /**
+    * Returns the value stored at this handle.
+    * @return the value stored at this handle.
+    */
+   public AnyType getValue( )
+   {
+       return element;
+   }
+
+   AnyType          element;
+   HeapOwner        owner;    // Issuing heap, or one merged from
+   FibNode<AnyType> parent;
+   FibNode<AnyType> child;    // Any one of the children
+   FibNode<AnyType> left;     // Siblings, circular
+   FibNode<AnyType> right;
+   int              degree;   // Number of children
+   boolean          mark;     // Lost a child since it became a child
+}
+
+private FibNode<AnyType> min;     // Root with the smallest item
+private int theSize;
+private HeapOwner owner = new HeapOwner( );
+
+   // Roots by degree for consolidate; degree is at most log_phi n
+private FibNode<AnyType> [ ] byDegree = new FibNode[ 8 ];
+
+/**
+* Add a single node to the root list, updating min.
+*/
+private void addRoot( FibNode<AnyType> x )
+{
+   x.parent = null;
+   x.mark = false;
+   if( min == null )
+   {
+       x.left = x.right = x;
+       min = x;
+   }
+   else
+   {
+       x.left = min;
+       x.right = min.right;
+       min.right.left = x;
+       min.right = x;
+       if( x.element.compareTo( min.element ) < 0 )
+           min = x;
+   }
+}
+
+/**
+* Join the circular list containing b into the one containing a.
+*/
+private static <AnyType> void splice( FibNode<AnyType> a, FibNode<AnyType> b )
+{
+   FibNode<AnyType> aRight = a.right;
+   FibNode<AnyType> bLeft = b.left;
+
+   a.right = b;
+   b.left = a;
+   bLeft.right = aRight;
+   aRight.left = bLeft;
+}
+
+/**
+* Link roots until no two have the same degree, and find the new min.
+* min must be some root on entry.
+*/
+private void consolidate( )
+{
+       // Count the roots first; linking changes the list as we go
+   int numRoots = 0;
+   FibNode<AnyType> w = min;
+   do
+   {
+       numRoots++;
+       w = w.right;
+   } while( w != min );
+
+   for( int i = 0; i < numRoots; i++ )
+   {
+       FibNode<AnyType> x = w;
+       w = w.right;
+
+       int d = x.degree;
+       while( d < byDegree.length && byDegree[ d ] != null )
+       {
+           FibNode<AnyType> y = byDegree[ d ];
+           if( y.element.compareTo( x.element ) < 0 )
+           {
+               FibNode<AnyType> tmp = x;
+               x = y;
+               y = tmp;
+           }
+           link( y, x );
+           byDegree[ d++ ] = null;
+       }
+       if( d >= byDegree.length )
+       {
+           FibNode<AnyType> [ ] old = byDegree;
+           byDegree = new FibNode[ 2 * d ];
+           System.arraycopy( old, 0, byDegree, 0, old.length );
+       }
+       byDegree[ d ] = x;
+   }
+
+       // Rebuild min from the surviving roots, clearing the array
+   min = null;
+   for( int i = 0; i < byDegree.length; i++ )
+       if( byDegree[ i ] != null )
+       {
+           if( min == null || byDegree[ i ].element.compareTo( min.element ) < 0 )
+               min = byDegree[ i ];
+           byDegree[ i ] = null;
+       }
+}
+
+/**
+* Remove root y from the root list and make it a child of root x.
+*/
+private void link( FibNode<AnyType> y, FibNode<AnyType> x )
+{
+   y.left.right = y.right;
+   y.right.left = y.left;
+
+   y.parent = x;
+   if( x.child == null )
+   {
+       x.child = y;
+       y.left = y.right = y;
+   }
+   else
+   {
+       y.left = x.child;
+       y.right = x.child.right;
+       x.child.right.left = y;
+       x.child.right = y;
+   }
+   x.degree++;
+   y.mark = false;
+}
+
+/**
+* Move x from the child list of y to the root list.
+*/
+private void cut( FibNode<AnyType> x, FibNode<AnyType> y )
+{
+   if( x.right == x )
+       y.child = null;
+   else
+   {
+       x.left.right = x.right;
+       x.right.left = x.left;
+       if( y.child == x )
+           y.child = x.right;
+   }
+   y.degree--;
+   addRoot( x );
+}
+
+/**
+* Cut marked ancestors of y up to the first unmarked one, and mark that.
+*/
+private void cascadingCut( FibNode<AnyType> y )
+{
+   for( FibNode<AnyType> z = y.parent; z != null; y = z, z = y.parent )
+   {
+       if( !y.mark )
+       {
+           y.mark = true;
+           return;
+       }
+       cut( y, z );
+   }
+}
+
+   /**
+    * Check that h rejects a stale handle; used by main.
+    */
+private static void checkStale( FibonacciHeap<Integer> h, Handle<Integer> stale )
+{
+   try
+   {
+       h.decreaseKey( stale, 1 );
+       System.out.println( "Oops! stale handle accepted" );
+   }
+   catch( IllegalArgumentException e )
+   {
+   }
+}
+
+   // Test program
+public static void main( String [ ] args )
+{
+   int numItems = 100000;
+   Random rnd = new Random( 100 );
+   FibonacciHeap<Integer> h = new FibonacciHeap<>( );
+   FibonacciHeap<Integer> h1 = new FibonacciHeap<>( );
+   @SuppressWarnings( "unchecked" )
+   Handle<Integer> [ ] p = (Handle<Integer> [ ]) new Handle<?>[ numItems ];
+
+   System.out.println( "Starting check." );
+
+   for( int i = 0; i < numItems; i++ )
+       p[ i ] = ( i % 2 == 0 ? h : h1 ).insertHandle( rnd.nextInt( numItems ) + numItems );
+   h.merge( h1 );
+
+       // Interleave deleteMin with decreaseKey so that trees have depth
+   int last = Integer.MIN_VALUE;
+   for( int i = 0; i < numItems; i++ )
+   {
+       if( i % 4 == 0 )
+       {
+           int x = h.deleteMin( );
+           if( x < last )
+               System.out.println( "Oops! " + x );
+           last = x;
+       }
+       else if( p[ i ].getValue( ) != null && p[ i ].getValue( ) > last )
+           h.decreaseKey( p[ i ], Math.max( last, p[ i ].getValue( ) - numItems / 2 ) );
+   }
+   while( !h.isEmpty( ) )
+   {
+       int x = h.deleteMin( );
+       if( x < last )
+           System.out.println( "Oops! " + x );
+       last = x;
+   }
+   if( h.size( ) != 0 || !h1.isEmpty( ) )
+       System.out.println( "Oops! size" );
+
+       // Handles from before makeEmpty, or from another heap, are rejected
+   Handle<Integer> old = h.insertHandle( 7 );
+   h.makeEmpty( );
+   h.insert( 8 );
+   Handle<Integer> other = h1.insertHandle( 9 );
+   checkStale( h, old );
+   checkStale( h, other );
+   h.merge( h1 );
+   h.decreaseKey( other, 1 );    // Valid once merged
+   if( h.deleteMin( ) != 1 || h.deleteMin( ) != 8 )
+       System.out.println( "Oops! after makeEmpty" );
+
+   System.out.println( "Check done." );
+}
+}
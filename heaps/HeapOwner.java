@@ -0,0 +1,41 @@
+package heaps;
+
+/**
+ * Identifies the heap a handle was issued by, so that addressable
+ * heaps can reject handles left over from before makeEmpty or taken
+ * from another heap. A heap replaces its owner on makeEmpty. On merge
+ * the emptied heap's owner is forwarded to the surviving heap's, so
+ * handles move with their items without visiting any nodes.
+ */
+final class HeapOwner
+{
+    /**
+     * Follow the merge chain to the owner of a live heap,
+     * pointing every owner on the way straight at it.
+     * @return the owner of the heap that now holds this owner's items.
+     */
+    HeapOwner current( )
+    {
+        HeapOwner root = this;
+        while( root.mergedInto != null )
+            root = root.mergedInto;
+
+        for( HeapOwner o = this; o != root; )
+        {
+            HeapOwner next = o.mergedInto;
+            o.mergedInto = root;
+            o = next;
+        }
+        return root;
+    }
+
+    /**
+     * Record that this owner's items were merged into survivor's heap.
+     */
+    void mergeInto( HeapOwner survivor )
+    {
+        mergedInto = survivor;
+    }
+
+    private HeapOwner mergedInto;
+}
@@ -0,0 +1,355 @@
+package heaps;
+
+import java.util.Random;
+
+
+//IndexedBinaryHeap class
+//
+//CONSTRUCTION: with optional capacity (that defaults to 10)
+//
+//******************PUBLIC OPERATIONS*********************
+//int insert( x )        --> Insert x, return its handle
+//Comparable deleteMin( )--> Return and remove smallest item
+//Comparable findMin( )  --> Return smallest item
+//int findMinHandle( )   --> Return handle of smallest item
+//Comparable get( h )    --> Return item with handle h
+//void decreaseKey( h, x ) --> Replace item h by smaller x
+//void increaseKey( h, x ) --> Replace item h by larger x
+//Comparable remove( h ) --> Remove and return item h
+//boolean contains( h )  --> Return true if h is in the heap
+//boolean isEmpty( )     --> Return true if empty; else false
+//int size( )            --> Return number of items
+//void makeEmpty( )      --> Remove all items
+//******************ERRORS********************************
+//findMin and deleteMin return null if empty;
+//findMinHandle throws UnderflowException if empty;
+//bad handles or keys throw IllegalArgumentException
+
+/**
+* Implements a binary heap whose items can be located by handle.
+* The heap array holds handles; a position map from handle to heap
+* index is kept up to date as items percolate, so decreaseKey,
+* increaseKey and remove run in O(log n) without searching.
+* A handle is valid from the insert that returns it until its item
+* is removed; after that it may be reused for a new item.
+* Note that all "matching" is based on the compareTo method.
+*/
+public class IndexedBinaryHeap<AnyType extends Comparable<? super AnyType>>
+{
+/**
+* Construct the heap.
+*/
+public IndexedBinaryHeap( )
+{
+   this( DEFAULT_CAPACITY );
+}
+
+/**
+* Construct the heap.
+* @param capacity the capacity of the heap.
+*/
+public IndexedBinaryHeap( int capacity )
+{
+   capacity = Math.max( capacity, 1 );
+   heap = new int[ capacity + 1 ];
+   pos = new int[ capacity ];
+   items = (AnyType[]) new Comparable[ capacity ];
+   freeHandles = new int[ capacity ];
+   makeEmpty( );
+}
+
+/**
+* Insert into the priority queue, maintaining heap order.
+* Duplicates are allowed.
+* @param x the item to insert.
+* @return the handle of the new item.
+*/
+public int insert( AnyType x )
+{
+   if( currentSize == heap.length - 1 )
+       enlargeArrays( 2 * heap.length - 1 );
+
+   int h = freeCount > 0 ? freeHandles[ --freeCount ] : nextHandle++;
+   items[ h ] = x;
+   heap[ ++currentSize ] = h;
+   pos[ h ] = currentSize;
+   percolateUp( currentSize );
+
+   return h;
+}
+
+private void enlargeArrays( int newCapacity )
+{
+   int [ ] oldHeap = heap;
+   int [ ] oldPos = pos;
+   AnyType [ ] oldItems = items;
+   int [ ] oldFree = freeHandles;
+
+   heap = new int[ newCapacity + 1 ];
+   pos = new int[ newCapacity ];
+   items = (AnyType[]) new Comparable[ newCapacity ];
+   freeHandles = new int[ newCapacity ];
+
+   System.arraycopy( oldHeap, 0, heap, 0, oldHeap.length );
+   System.arraycopy( oldPos, 0, pos, 0, oldPos.length );
+   System.arraycopy( oldItems, 0, items, 0, oldItems.length );
+   System.arraycopy( oldFree, 0, freeHandles, 0, freeCount );
+}
+
+/**
+* Find the smallest item in the priority queue.
+* @return the smallest item, or null if empty.
+*/
+public AnyType findMin( )
+{
+   if( isEmpty( ) )
+  	 return null;
+   return items[ heap[ 1 ] ];
+}
+
+/**
+* Find the handle of the smallest item in the priority queue.
+* @return the handle.
+* @throws UnderflowException if empty.
+*/
+public int findMinHandle( )
+{
+   if( isEmpty( ) )
+       throw new UnderflowException( );
+   return heap[ 1 ];
+}
+
+/**
+* Remove the smallest item from the priority queue.
+* @return the smallest item, or null if empty.
+*/
+public AnyType deleteMin( )
+{
+   if( isEmpty( ) )
+  	 return null;
+   return removeAt( 1 );
+}
+
+/**
+* Get the item with the given handle.
+* @param h a handle returned by insert.
+* @return the item.
+*/
+public AnyType get( int h )
+{
+   checkHandle( h );
+   return items[ h ];
+}
+
+/**
+* Replace the item with the given handle by a smaller or equal one.
+* @param h a handle returned by insert.
+* @param x the new item.
+* @throws IllegalArgumentException if x is larger than the current item.
+*/
+public void decreaseKey( int h, AnyType x )
+{
+   checkHandle( h );
+   if( x.compareTo( items[ h ] ) > 0 )
+       throw new IllegalArgumentException( "new item is larger" );
+   items[ h ] = x;
+   percolateUp( pos[ h ] );
+}
+
+/**
+* Replace the item with the given handle by a larger or equal one.
+* @param h a handle returned by insert.
+* @param x the new item.
+* @throws IllegalArgumentException if x is smaller than the current item.
+*/
+public void increaseKey( int h, AnyType x )
+{
+   checkHandle( h );
+   if( x.compareTo( items[ h ] ) < 0 )
+       throw new IllegalArgumentException( "new item is smaller" );
+   items[ h ] = x;
+   percolateDown( pos[ h ] );
+}
+
+/**
+* Remove the item with the given handle.
+* @param h a handle returned by insert.
+* @return the removed item.
+*/
+public AnyType remove( int h )
+{
+   checkHandle( h );
+   return removeAt( pos[ h ] );
+}
+
+/**
+* Test if a handle refers to an item in the heap.
+* @param h the handle.
+* @return true if h is in the heap.
+*/
+public boolean contains( int h )
+{
+   return h >= 0 && h < nextHandle && pos[ h ] != 0;
+}
+
+/**
+* Test if the priority queue is logically empty.
+* @return true if empty, false otherwise.
+*/
+public boolean isEmpty( )
+{
+   return currentSize == 0;
+}
+
+/**
+* Get the number of items in the priority queue.
+* @return the size.
+*/
+public int size( )
+{
+   return currentSize;
+}
+
+/**
+* Make the priority queue logically empty.
+* All handles become invalid.
+*/
+public void makeEmpty( )
+{
+   for( int i = 1; i <= currentSize; i++ )
+   {
+       pos[ heap[ i ] ] = 0;
+       items[ heap[ i ] ] = null;
+   }
+   currentSize = 0;
+   nextHandle = 0;
+   freeCount = 0;
+}
+
+private static final int DEFAULT_CAPACITY = 10;
+
+private int currentSize;      // Number of elements in heap
+private int [ ] heap;         // Handles, in heap order from index 1
+private int [ ] pos;          // Heap index of each handle, 0 if free
+private AnyType [ ] items;    // Item of each handle
+private int [ ] freeHandles;  // Stack of handles to reuse
+private int freeCount;        // Number of handles on the stack
+private int nextHandle;       // Lowest handle never used
+
+private void checkHandle( int h )
+{
+   if( !contains( h ) )
+       throw new IllegalArgumentException( "not in the heap: " + h );
+}
+
+/**
+* Remove the item at a heap index and free its handle.
+*/
+private AnyType removeAt( int i )
+{
+   int h = heap[ i ];
+   AnyType item = items[ h ];
+
+   int last = heap[ currentSize-- ];
+   if( i <= currentSize )
+   {
+       heap[ i ] = last;
+       pos[ last ] = i;
+       if( i > 1 && items[ last ].compareTo( items[ heap[ i / 2 ] ] ) < 0 )
+           percolateUp( i );
+       else
+           percolateDown( i );
+   }
+
+   pos[ h ] = 0;
+   items[ h ] = null;
+   freeHandles[ freeCount++ ] = h;
+   return item;
+}
+
+/**
+* Internal method to percolate up in the heap.
+* @param hole the index at which the percolate begins.
+*/
+private void percolateUp( int hole )
+{
+   int h = heap[ hole ];
+   AnyType x = items[ h ];
+
+   for( ; hole > 1 && x.compareTo( items[ heap[ hole / 2 ] ] ) < 0; hole /= 2 )
+   {
+       heap[ hole ] = heap[ hole / 2 ];
+       pos[ heap[ hole ] ] = hole;
+   }
+   heap[ hole ] = h;
+   pos[ h ] = hole;
+}
+
+/**
+* Internal method to percolate down in the heap.
+* @param hole the index at which the percolate begins.
+*/
+private void percolateDown( int hole )
+{
+   int child;
+   int h = heap[ hole ];
+   AnyType tmp = items[ h ];
+
+   for( ; hole * 2 <= currentSize; hole = child )
+   {
+       child = hole * 2;
+       if( child != currentSize &&
+               items[ heap[ child + 1 ] ].compareTo( items[ heap[ child ] ] ) < 0 )
+           child++;
+       if( items[ heap[ child ] ].compareTo( tmp ) < 0 )
+       {
+           heap[ hole ] = heap[ child ];
+           pos[ heap[ hole ] ] = hole;
+       }
+       else
+           break;
+   }
+   heap[ hole ] = h;
+   pos[ h ] = hole;
+}
+
+   // Test program
+public static void main( String [ ] args )
+{
+   int numItems = 100000;
+   Random rnd = new Random( 100 );
+   IndexedBinaryHeap<Integer> h = new IndexedBinaryHeap<>( );
+   int [ ] handles = new int[ numItems ];
+
+   System.out.println( "Starting check." );
+
+   for( int i = 0; i < numItems; i++ )
+       handles[ i ] = h.insert( rnd.nextInt( 1000000 ) + 1000000 );
+
+       // Give every even item a smaller key, then remove every third
+   for( int i = 0; i < numItems; i += 2 )
+       h.decreaseKey( handles[ i ], h.get( handles[ i ] ) - 1000000 );
+   for( int i = 1; i < numItems; i += 2 )
+       h.increaseKey( handles[ i ], h.get( handles[ i ] ) + 1000000 );
+   int removed = 0;
+   for( int i = 0; i < numItems; i += 3 )
+   {
+       h.remove( handles[ i ] );
+       removed++;
+   }
+
+   if( h.size( ) != numItems - removed )
+       System.out.println( "Oops! size " + h.size( ) );
+
+   int last = Integer.MIN_VALUE;
+   while( !h.isEmpty( ) )
+   {
+       int x = h.deleteMin( );
+       if( x < last )
+           System.out.println( "Oops! " + x );
+       last = x;
+   }
+
+   System.out.println( "Check done." );
+}
+}
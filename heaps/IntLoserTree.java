@@ -0,0 +1,211 @@
+package heaps;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+
+//IntLoserTree class
+//
+//CONSTRUCTION: with an array of sorted int arrays
+//
+//******************PUBLIC OPERATIONS*********************
+//boolean hasNext( )     --> Return true if items remain
+//int nextInt( )         --> Return the next item in merged order
+//int next( out, off, len ) --> Fill out with up to len items
+//******************ERRORS********************************
+//nextInt throws NoSuchElementException when exhausted
+
+/**
+* Merges k sorted int arrays with a tournament tree of losers.
+* Same algorithm as LoserTree, with primitive compares and no
+* per-item allocation; see LoserTree for how it works.
+* Each input's head is kept as one long, the value in the high
+* half and the input index in the low half, so a match is a single
+* compare that also breaks ties by input, and an exhausted input
+* holds Long.MAX_VALUE.
+*/
+public class IntLoserTree
+{
+/**
+* Construct the merge.
+* @param runs the inputs, each in nondecreasing order.
+*/
+public IntLoserTree( int [ ] [ ] runs )
+{
+   k = runs.length;
+   this.runs = runs;
+   pos = new int[ k ];
+   heads = new long[ k ];
+   tree = new int[ Math.max( k, 1 ) ];
+
+   for( int i = 0; i < k; i++ )
+       advance( i );
+   if( k > 0 )
+       tree[ 0 ] = play( 1 );
+}
+
+/**
+* Test if any items remain.
+* @return true if nextInt will return an item.
+*/
+public boolean hasNext( )
+{
+   return k > 0 && heads[ tree[ 0 ] ] != EXHAUSTED;
+}
+
+/**
+* Return the next item in merged order.
+* @return the smallest remaining item.
+*/
+public int nextInt( )
+{
+   if( !hasNext( ) )
+       throw new NoSuchElementException( );
+
+   int winner = tree[ 0 ];
+   int minItem = (int) ( heads[ winner ] >> 32 );
+   advance( winner );
+   replay( winner );
+   return minItem;
+}
+
+/**
+* Fill part of an array with the next items in merged order.
+* @param out the array to fill.
+* @param off the first index to fill.
+* @param len the most items to fill.
+* @return the number of items filled; less than len only at the end.
+*/
+public int next( int [ ] out, int off, int len )
+{
+   int n = 0;
+   while( n < len && hasNext( ) )
+   {
+       int winner = tree[ 0 ];
+       out[ off + n++ ] = (int) ( heads[ winner ] >> 32 );
+       advance( winner );
+       replay( winner );
+   }
+   return n;
+}
+
+private final int k;          // Number of inputs
+private final int [ ] [ ] runs;
+private final int [ ] pos;    // Index of the next item of each input
+private final long [ ] heads; // Packed head of each input
+private final int [ ] tree;   // Losers at 1..k-1, winner at 0
+
+private static final long EXHAUSTED = Long.MAX_VALUE;
+
+/**
+* Load the next item of input i into heads, or mark it exhausted.
+*/
+private void advance( int i )
+{
+   int [ ] run = runs[ i ];
+   heads[ i ] = pos[ i ] < run.length ? (long) run[ pos[ i ]++ ] << 32 | i : EXHAUSTED;
+}
+
+/**
+* Return true if input a's head goes before input b's.
+*/
+private boolean beats( int a, int b )
+{
+   return heads[ a ] < heads[ b ];
+}
+
+/**
+* Play the matches below node, recording losers.
+* @return the input that wins at node.
+*/
+private int play( int node )
+{
+   if( node >= k )
+       return node - k;
+
+   int a = play( 2 * node );
+   int b = play( 2 * node + 1 );
+   if( beats( a, b ) )
+   {
+       tree[ node ] = b;
+       return a;
+   }
+   tree[ node ] = a;
+   return b;
+}
+
+/**
+* Replay the matches from the leaf of input winner up to the root.
+*/
+private void replay( int winner )
+{
+   for( int node = ( winner + k ) / 2; node > 0; node /= 2 )
+       if( beats( tree[ node ], winner ) )
+       {
+           int tmp = tree[ node ];
+           tree[ node ] = winner;
+           winner = tmp;
+       }
+   tree[ 0 ] = winner;
+}
+
+   // Test program; compares against merging with a LongBinaryHeap
+public static void main( String [ ] args )
+{
+   int k = 64;
+   int runLength = 100000;
+   int rounds = 5;
+   Random rnd = new Random( 100 );
+   int [ ] [ ] runs = new int[ k ][ runLength ];
+   for( int [ ] run : runs )
+   {
+       for( int j = 0; j < runLength; j++ )
+           run[ j ] = rnd.nextInt( );
+       Arrays.sort( run );
+   }
+
+   int [ ] out = new int[ k * runLength ];
+   int [ ] block = new int[ 1024 ];
+   long treeTime = 0, heapTime = 0;
+
+   for( int r = 0; r <= rounds; r++ )
+   {
+       long startTime = System.nanoTime( );
+       IntLoserTree merge = new IntLoserTree( runs );
+       int count = 0;
+       for( int n; ( n = merge.next( block, 0, block.length ) ) > 0; count += n )
+           System.arraycopy( block, 0, out, count, n );
+       long t1 = System.nanoTime( );
+
+           // Heap of ( value, run ) pairs packed into one long
+       LongBinaryHeap heap = new LongBinaryHeap( k );
+       int [ ] pos = new int[ k ];
+       for( int i = 0; i < k; i++ )
+           heap.insert( (long) runs[ i ][ pos[ i ]++ ] << 32 | i );
+       int check = 0;
+       while( !heap.isEmpty( ) )
+       {
+           long top = heap.deleteMin( );
+           int i = (int) top;
+           if( out[ check++ ] != (int) ( top >> 32 ) )
+               System.out.println( "Oops! " + check );
+           if( pos[ i ] < runLength )
+               heap.insert( (long) runs[ i ][ pos[ i ]++ ] << 32 | i );
+       }
+       long t2 = System.nanoTime( );
+
+       if( count != out.length || check != out.length )
+           System.out.println( "Oops! count " + count );
+       if( r > 0 )
+       {
+           treeTime += t1 - startTime;
+           heapTime += t2 - t1;
+       }
+   }
+
+   System.out.println( "The time for a " + k + "-way merge of " + out.length + " ints:" );
+   System.out.println( "  IntLoserTree  " + treeTime / rounds );
+   System.out.println( "  LongBinaryHeap " + heapTime / rounds );
+}
+}
@@ -0,0 +1,298 @@
+package heaps;
+
+import java.util.Arrays;
+import java.util.Random;
+
+
+//KeyedHeap class
+//
+//CONSTRUCTION: with optional capacity (that defaults to 10)
+//          or parallel arrays of initial keys and items
+//
+//******************PUBLIC OPERATIONS*********************
+//void insert( key, x )  --> Insert x with priority key
+//Object deleteMin( )    --> Return and remove item with smallest key
+//Object findMin( )      --> Return item with smallest key
+//long findMinKey( )     --> Return smallest key
+//boolean isEmpty( )     --> Return true if empty; else false
+//int size( )            --> Return number of items
+//void makeEmpty( )      --> Remove all items
+//******************ERRORS********************************
+//Throws UnderflowException as appropriate
+
+/**
+* Implements a binary heap of items ordered by long keys.
+* Same algorithms as BinaryHeap, but keys live unboxed in one array
+* and items in a parallel array, so every compare is a primitive
+* compare on the dense key array. An item is only touched when its
+* slot moves.
+*/
+public class KeyedHeap<AnyType>
+{
+/**
+* Construct the keyed heap.
+*/
+public KeyedHeap( )
+{
+   this( DEFAULT_CAPACITY );
+}
+
+/**
+* Construct the keyed heap.
+* @param capacity the capacity of the keyed heap.
+*/
+public KeyedHeap( int capacity )
+{
+   currentSize = 0;
+   keys = new long[ capacity + 1 ];
+   items = new Object[ capacity + 1 ];
+}
+
+/**
+* Construct the keyed heap given parallel arrays of keys and items.
+* @throws IllegalArgumentException if the lengths differ.
+*/
+public KeyedHeap( long [ ] initKeys, AnyType [ ] initItems )
+{
+       if( initKeys.length != initItems.length )
+           throw new IllegalArgumentException( "Lengths differ" );
+
+       currentSize = initKeys.length;
+       keys = new long[ ( currentSize + 2 ) * 11 / 10 ];
+       items = new Object[ keys.length ];
+
+       System.arraycopy( initKeys, 0, keys, 1, currentSize );
+       System.arraycopy( initItems, 0, items, 1, currentSize );
+       buildHeap( );
+}
+
+/**
+* Insert into the priority queue, maintaining heap order.
+* Duplicate keys are allowed.
+* @param key the priority of x.
+* @param x the item to insert.
+*/
+public void insert( long key, AnyType x )
+{
+   if( currentSize == keys.length - 1 )
+       enlargeArray( keys.length * 2 + 1 );
+
+       // Percolate up
+   int hole = ++currentSize;
+   for( ; hole > 1 && key < keys[ hole / 2 ]; hole /= 2 )
+   {
+       keys[ hole ] = keys[ hole / 2 ];
+       items[ hole ] = items[ hole / 2 ];
+   }
+   keys[ hole ] = key;
+   items[ hole ] = x;
+}
+
+
+private void enlargeArray( int newSize )
+{
+       keys = Arrays.copyOf( keys, newSize );
+       items = Arrays.copyOf( items, newSize );
+}
+
+/**
+* Find the item with the smallest key in the priority queue.
+* @return the item with the smallest key.
+* @throws UnderflowException if empty.
+*/
+public AnyType findMin( )
+{
+   if( isEmpty( ) )
+       throw new UnderflowException( );
+   return (AnyType) items[ 1 ];
+}
+
+/**
+* Find the smallest key in the priority queue.
+* @return the smallest key.
+* @throws UnderflowException if empty.
+*/
+public long findMinKey( )
+{
+   if( isEmpty( ) )
+       throw new UnderflowException( );
+   return keys[ 1 ];
+}
+
+/**
+* Remove the item with the smallest key from the priority queue.
+* @return the item with the smallest key.
+* @throws UnderflowException if empty.
+*/
+public AnyType deleteMin( )
+{
+   if( isEmpty( ) )
+       throw new UnderflowException( );
+
+   AnyType minItem = (AnyType) items[ 1 ];
+   keys[ 1 ] = keys[ currentSize ];
+   items[ 1 ] = items[ currentSize ];
+   items[ currentSize-- ] = null;
+   percolateDown( 1 );
+
+   return minItem;
+}
+
+/**
+* Establish heap order property from an arbitrary
+* arrangement of items. Runs in linear time.
+*/
+private void buildHeap( )
+{
+   for( int i = currentSize / 2; i > 0; i-- )
+       percolateDown( i );
+}
+
+/**
+* Test if the priority queue is logically empty.
+* @return true if empty, false otherwise.
+*/
+public boolean isEmpty( )
+{
+   return currentSize == 0;
+}
+
+/**
+* Get the number of items in the priority queue.
+* @return the size.
+*/
+public int size( )
+{
+   return currentSize;
+}
+
+/**
+* Make the priority queue logically empty.
+*/
+public void makeEmpty( )
+{
+   Arrays.fill( items, 1, currentSize + 1, null );
+   currentSize = 0;
+}
+
+private static final int DEFAULT_CAPACITY = 10;
+
+private int currentSize;      // Number of elements in heap
+private long [ ] keys;        // The heap array of keys
+private Object [ ] items;     // The items, parallel to keys
+
+/**
+* Internal method to percolate down in the heap.
+* @param hole the index at which the percolate begins.
+*/
+private void percolateDown( int hole )
+{
+   int child;
+   long tmpKey = keys[ hole ];
+   Object tmpItem = items[ hole ];
+
+   for( ; hole * 2 <= currentSize; hole = child )
+   {
+       child = hole * 2;
+       if( child != currentSize &&
+               keys[ child + 1 ] < keys[ child ] )
+           child++;
+       if( keys[ child ] < tmpKey )
+       {
+           keys[ hole ] = keys[ child ];
+           items[ hole ] = items[ child ];
+       }
+       else
+           break;
+   }
+   keys[ hole ] = tmpKey;
+   items[ hole ] = tmpItem;
+}
+
+   // Item ordered by a long priority, as BinaryHeap requires
+private static final class Entry implements Comparable<Entry>
+{
+   final long priority;
+   final Object payload;
+
+   Entry( long priority, Object payload )
+   {
+       this.priority = priority;
+       this.payload = payload;
+   }
+
+   public int compareTo( Entry rhs )
+   {
+       return priority < rhs.priority ? -1 : priority == rhs.priority ? 0 : 1;
+   }
+}
+
+   // Test program; compares against BinaryHeap of Comparable entries
+public static void main( String [ ] args )
+{
+   int numItems = 2000000;
+   int rounds = 5;
+   Random rnd = new Random( 100 );
+   long [ ] priorities = new long[ numItems ];
+   Entry [ ] entries = new Entry[ numItems ];
+   Object [ ] payloads = new Object[ numItems ];
+   for( int i = 0; i < numItems; i++ )
+   {
+       priorities[ i ] = rnd.nextLong( );
+       payloads[ i ] = Integer.valueOf( i );
+       entries[ i ] = new Entry( priorities[ i ], payloads[ i ] );
+   }
+
+   KeyedHeap<Object> k = new KeyedHeap<>( numItems );
+   BinaryHeap<Entry> b = new BinaryHeap<>( numItems );
+   long keyedTime = 0, boxedTime = 0;
+
+   for( int r = 0; r <= rounds; r++ )
+   {
+       long startTime = System.nanoTime( );
+       for( int i = 0; i < numItems; i++ )
+           k.insert( priorities[ i ], payloads[ i ] );
+       long last = Long.MIN_VALUE;
+       while( !k.isEmpty( ) )
+       {
+           long key = k.findMinKey( );
+           Object x = k.deleteMin( );
+           if( key < last || key != priorities[ (Integer) x ] )
+               System.out.println( "Oops! " + key );
+           last = key;
+       }
+       long t1 = System.nanoTime( );
+
+       for( int i = 0; i < numItems; i++ )
+           b.insert( entries[ i ] );
+       last = Long.MIN_VALUE;
+       while( !b.isEmpty( ) )
+       {
+           Entry e = b.deleteMin( );
+           if( e.priority < last )
+               System.out.println( "Oops! " + e.priority );
+           last = e.priority;
+       }
+       long t2 = System.nanoTime( );
+
+       if( r > 0 )
+       {
+           keyedTime += t1 - startTime;
+           boxedTime += t2 - t1;
+       }
+   }
+
+   System.out.println( "The time to insert and delete " + numItems + " items:" );
+   System.out.println( "  KeyedHeap          " + keyedTime / rounds );
+   System.out.println( "  BinaryHeap<Entry>  " + boxedTime / rounds );
+
+   KeyedHeap<Object> built = new KeyedHeap<>( Arrays.copyOf( priorities, 1000 ), Arrays.copyOf( payloads, 1000 ) );
+   for( long last = Long.MIN_VALUE; !built.isEmpty( ); )
+   {
+       long key = built.findMinKey( );
+       if( key < last || key != priorities[ (Integer) built.deleteMin( ) ] )
+           System.out.println( "Oops! built " + key );
+       last = key;
+   }
+}
+}
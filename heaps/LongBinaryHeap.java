@@ -0,0 +1,217 @@
+package heaps;
+
+import java.util.Random;
+
+
+//LongBinaryHeap class
+//
+//CONSTRUCTION: with optional capacity (that defaults to 10)
+//          or an array containing initial items
+//
+//******************PUBLIC OPERATIONS*********************
+//void insert( x )       --> Insert x
+//long deleteMin( )      --> Return and remove smallest item
+//long findMin( )        --> Return smallest item
+//boolean isEmpty( )     --> Return true if empty; else false
+//int size( )            --> Return number of items
+//void makeEmpty( )      --> Remove all items
+//******************ERRORS********************************
+//Throws UnderflowException as appropriate
+
+/**
+* Implements a binary heap of primitive longs.
+* Same algorithms as BinaryHeap, but items live unboxed in a
+* long array and are compared with the primitive operators, so
+* operations allocate nothing once the array is large enough.
+*/
+public class LongBinaryHeap
+{
+/**
+* Construct the binary heap.
+*/
+public LongBinaryHeap( )
+{
+   this( DEFAULT_CAPACITY );
+}
+
+/**
+* Construct the binary heap.
+* @param capacity the capacity of the binary heap.
+*/
+public LongBinaryHeap( int capacity )
+{
+   currentSize = 0;
+   array = new long[ capacity + 1 ];
+}
+
+/**
+* Construct the binary heap given an array of items.
+*/
+public LongBinaryHeap( long [ ] items )
+{
+       currentSize = items.length;
+       array = new long[ ( currentSize + 2 ) * 11 / 10 ];
+
+       System.arraycopy( items, 0, array, 1, items.length );
+       buildHeap( );
+}
+
+/**
+* Insert into the priority queue, maintaining heap order.
+* Duplicates are allowed.
+* @param x the item to insert.
+*/
+public void insert( long x )
+{
+   if( currentSize == array.length - 1 )
+       enlargeArray( array.length * 2 + 1 );
+
+       // Percolate up
+   int hole = ++currentSize;
+   for( array[ 0 ] = x; x < array[ hole / 2 ]; hole /= 2 )
+       array[ hole ] = array[ hole / 2 ];
+   array[ hole ] = x;
+}
+
+
+private void enlargeArray( int newSize )
+{
+       long [ ] old = array;
+       array = new long[ newSize ];
+       System.arraycopy( old, 0, array, 0, old.length );
+}
+
+/**
+* Find the smallest item in the priority queue.
+* @return the smallest item.
+* @throws UnderflowException if empty.
+*/
+public long findMin( )
+{
+   if( isEmpty( ) )
+       throw new UnderflowException( );
+   return array[ 1 ];
+}
+
+/**
+* Remove the smallest item from the priority queue.
+* @return the smallest item.
+* @throws UnderflowException if empty.
+*/
+public long deleteMin( )
+{
+   if( isEmpty( ) )
+       throw new UnderflowException( );
+
+   long minItem = array[ 1 ];
+   array[ 1 ] = array[ currentSize-- ];
+   percolateDown( 1 );
+
+   return minItem;
+}
+
+/**
+* Establish heap order property from an arbitrary
+* arrangement of items. Runs in linear time.
+*/
+private void buildHeap( )
+{
+   for( int i = currentSize / 2; i > 0; i-- )
+       percolateDown( i );
+}
+
+/**
+* Test if the priority queue is logically empty.
+* @return true if empty, false otherwise.
+*/
+public boolean isEmpty( )
+{
+   return currentSize == 0;
+}
+
+/**
+* Get the number of items in the priority queue.
+* @return the size.
+*/
+public int size( )
+{
+   return currentSize;
+}
+
+/**
+* Make the priority queue logically empty.
+*/
+public void makeEmpty( )
+{
+   currentSize = 0;
+}
+
+private static final int DEFAULT_CAPACITY = 10;
+
+private int currentSize;      // Number of elements in heap
+private long [ ] array;       // The heap array
+
+/**
+* Internal method to percolate down in the heap.
+* @param hole the index at which the percolate begins.
+*/
+private void percolateDown( int hole )
+{
+   int child;
+   long tmp = array[ hole ];
+
+   for( ; hole * 2 <= currentSize; hole = child )
+   {
+       child = hole * 2;
+       if( child != currentSize &&
+               array[ child + 1 ] < array[ child ] )
+           child++;
+       if( array[ child ] < tmp )
+           array[ hole ] = array[ child ];
+       else
+           break;
+   }
+   array[ hole ] = tmp;
+}
+
+   // Test program; compares against BinaryHeap<Long>
+public static void main( String [ ] args )
+{
+   int numItems = 1000000;
+   int rounds = 10;
+   Random rnd = new Random( 100 );
+   long [ ] items = new long[ numItems ];
+   for( int i = 0; i < numItems; i++ )
+       items[ i ] = rnd.nextLong( );
+
+   LongBinaryHeap h = new LongBinaryHeap( numItems );
+   BinaryHeap<Long> b = new BinaryHeap<>( numItems );
+   long longTime = 0, boxedTime = 0;
+
+   for( int r = 0; r < rounds; r++ )
+   {
+       long startTime = System.nanoTime( );
+       for( int j = 0; j < numItems; j++ )
+           h.insert( items[ j ] );
+       long last = Long.MIN_VALUE;
+       while( !h.isEmpty( ) )
+       {
+           long x = h.deleteMin( );
+           if( x < last )
+               System.out.println( "Oops! " + x );
+           last = x;
+       }
+       longTime += System.nanoTime( ) - startTime;
+
+       startTime = System.nanoTime( );
+       for( int j = 0; j < numItems; j++ )
+           b.insert( items[ j ] );
+       while( !b.isEmpty( ) )
+           b.deleteMin( );
+       boxedTime += System.nanoTime( ) - startTime;
+   }
+
+   System.out.println( "The time for LongBinaryHeap insert+delete is " + longTime / rounds );
+   System.out.println( "The time for BinaryHeap<Long> insert+delete is " + boxedTime / rounds );
+}
+}
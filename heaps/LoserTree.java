@@ -0,0 +1,207 @@
+package heaps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+
+//LoserTree class
+//
+//CONSTRUCTION: with a list of iterators, each sorted
+//
+//******************PUBLIC OPERATIONS*********************
+//boolean hasNext( )     --> Return true if items remain
+//Comparable next( )     --> Return the next item in merged order
+//int next( out, off, len ) --> Fill out with up to len items
+//******************ERRORS********************************
+//next throws NoSuchElementException when exhausted
+
+/**
+* Merges k sorted inputs with a tournament tree of losers.
+* Each internal node remembers the loser of the match played there,
+* and the overall winner is kept apart. After the winner is output,
+* only the path from its input's leaf to the root is replayed, so
+* each output item costs ceil( log2 k ) compares, against about
+* 2 log2 k for a binary heap of input heads.
+* Equal items come out in input order.
+* Note that all "matching" is based on the compareTo method.
+*/
+public class LoserTree<AnyType extends Comparable<? super AnyType>> implements Iterator<AnyType>
+{
+/**
+* Construct the merge.
+* @param inputs the inputs, each in nondecreasing order.
+*/
+public LoserTree( List<? extends Iterator<? extends AnyType>> inputs )
+{
+   k = inputs.size( );
+   sources = inputs.toArray( new Iterator[ k ] );
+   heads = (AnyType[]) new Comparable[ k ];
+   done = new boolean[ k ];
+   tree = new int[ Math.max( k, 1 ) ];
+
+   for( int i = 0; i < k; i++ )
+       advance( i );
+   if( k > 0 )
+       tree[ 0 ] = play( 1 );
+}
+
+/**
+* Test if any items remain.
+* @return true if next will return an item.
+*/
+public boolean hasNext( )
+{
+   return k > 0 && !done[ tree[ 0 ] ];
+}
+
+/**
+* Return the next item in merged order.
+* @return the smallest remaining item.
+*/
+public AnyType next( )
+{
+   if( !hasNext( ) )
+       throw new NoSuchElementException( );
+
+   int winner = tree[ 0 ];
+   AnyType minItem = heads[ winner ];
+   advance( winner );
+   replay( winner );
+   return minItem;
+}
+
+/**
+* Fill part of an array with the next items in merged order.
+* @param out the array to fill.
+* @param off the first index to fill.
+* @param len the most items to fill.
+* @return the number of items filled; less than len only at the end.
+*/
+public int next( AnyType [ ] out, int off, int len )
+{
+   int n = 0;
+   while( n < len && hasNext( ) )
+   {
+       int winner = tree[ 0 ];
+       out[ off + n++ ] = heads[ winner ];
+       advance( winner );
+       replay( winner );
+   }
+   return n;
+}
+
+/**
+* Not supported.
+*/
+public void remove( )
+{
+   throw new UnsupportedOperationException( );
+}
+
+private final int k;                  // Number of inputs
+private final Iterator<? extends AnyType> [ ] sources;
+private final AnyType [ ] heads;      // Next item of each input
+private final boolean [ ] done;       // True if an input is exhausted
+private final int [ ] tree;           // Losers at 1..k-1, winner at 0
+
+/**
+* Load the next item of input i into heads, or mark it done.
+*/
+private void advance( int i )
+{
+   if( sources[ i ].hasNext( ) )
+       heads[ i ] = sources[ i ].next( );
+   else
+   {
+       heads[ i ] = null;
+       done[ i ] = true;
+   }
+}
+
+/**
+* Return true if input a's head goes before input b's.
+* Exhausted inputs lose to everything.
+*/
+private boolean beats( int a, int b )
+{
+   if( done[ a ] )
+       return false;
+   if( done[ b ] )
+       return true;
+   int c = heads[ a ].compareTo( heads[ b ] );
+   return c < 0 || c == 0 && a < b;
+}
+
+/**
+* Play the matches below node, recording losers.
+* Leaves are nodes k..2k-1, for inputs 0..k-1.
+* @return the input that wins at node.
+*/
+private int play( int node )
+{
+   if( node >= k )
+       return node - k;
+
+   int a = play( 2 * node );
+   int b = play( 2 * node + 1 );
+   if( beats( a, b ) )
+   {
+       tree[ node ] = b;
+       return a;
+   }
+   tree[ node ] = a;
+   return b;
+}
+
+/**
+* Replay the matches from the leaf of input winner up to the root.
+*/
+private void replay( int winner )
+{
+   for( int node = ( winner + k ) / 2; node > 0; node /= 2 )
+       if( beats( tree[ node ], winner ) )
+       {
+           int tmp = tree[ node ];
+           tree[ node ] = winner;
+           winner = tmp;
+       }
+   tree[ 0 ] = winner;
+}
+
+   // Test program
+public static void main( String [ ] args )
+{
+   int k = 37;
+   List<Iterator<Integer>> inputs = new ArrayList<>( );
+   int total = 0;
+   for( int i = 0; i < k; i++ )
+   {
+       Integer [ ] run = new Integer[ i * 10 ];
+       for( int j = 0; j < run.length; j++ )
+           run[ j ] = ( j * 37 + i ) % 1000;
+       Arrays.sort( run );
+       inputs.add( Arrays.asList( run ).iterator( ) );
+       total += run.length;
+   }
+
+   System.out.println( "Starting check." );
+
+   LoserTree<Integer> merge = new LoserTree<>( inputs );
+   Integer [ ] block = new Integer[ 100 ];
+   int count = 0, last = Integer.MIN_VALUE;
+   for( int n; ( n = merge.next( block, 0, block.length ) ) > 0; count += n )
+       for( int i = 0; i < n; i++ )
+       {
+           if( block[ i ] < last )
+               System.out.println( "Oops! " + block[ i ] );
+           last = block[ i ];
+       }
+   if( count != total )
+       System.out.println( "Oops! count " + count );
+
+   System.out.println( "Check done." );
+}
+}
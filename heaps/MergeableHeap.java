@@ -0,0 +1,17 @@
+package heaps;
+
+/**
+ * Priority queue that supports a cheap merge with another of
+ * the same kind. rhs becomes empty after merge.
+ * findMin and deleteMin return null if empty.
+ */
+public interface MergeableHeap<AnyType extends Comparable<? super AnyType>,
+        HeapType extends MergeableHeap<AnyType, HeapType>>
+{
+    void insert( AnyType x );
+    AnyType findMin( );
+    AnyType deleteMin( );
+    boolean isEmpty( );
+    void makeEmpty( );
+    void merge( HeapType rhs );
+}
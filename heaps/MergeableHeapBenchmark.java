@@ -0,0 +1,240 @@
+package heaps;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import heaps.AddressableHeap.Handle;
+
+/**
+* Compares BinomialQueue, PairingHeap and FibonacciHeap on two
+* workloads:
+* <ul>
+* <li>Dijkstra's shortest paths on a random sparse graph, using
+*     decreaseKey. BinomialQueue is also run inserting duplicates
+*     and skipping stale entries instead, for comparison.</li>
+* <li>An event simulation (the "hold" model): a fixed number of
+*     pending events, where each step removes the earliest and
+*     schedules a new one a random delay later.</li>
+* </ul>
+* Times are in nanoseconds, averaged over ROUNDS after one warmup.
+*/
+public class MergeableHeapBenchmark
+{
+   private static final int ROUNDS = 5;
+
+   /**
+    * Heap entry: a vertex or event with its priority.
+    */
+   private static final class Entry implements Comparable<Entry>
+   {
+       Entry( long priority, int id )
+       {
+           this.priority = priority;
+           this.id = id;
+       }
+
+       public int compareTo( Entry rhs )
+       {
+           return priority < rhs.priority ? -1 : priority == rhs.priority ? 0 : 1;
+       }
+
+       final long priority;
+       final int id;
+   }
+
+   /**
+    * Random directed graph in compressed adjacency form.
+    */
+   private static final class Graph
+   {
+       Graph( int numVertices, int degree, Random rnd )
+       {
+           start = new int[ numVertices + 1 ];
+           target = new int[ numVertices * degree ];
+           weight = new int[ numVertices * degree ];
+           for( int v = 0, e = 0; v < numVertices; v++ )
+           {
+               start[ v ] = e;
+               for( int k = 0; k < degree; k++, e++ )
+               {
+                   target[ e ] = rnd.nextInt( numVertices );
+                   weight[ e ] = 1 + rnd.nextInt( 1000 );
+               }
+           }
+           start[ numVertices ] = target.length;
+       }
+
+       final int [ ] start;
+       final int [ ] target;
+       final int [ ] weight;
+   }
+
+   /**
+    * Dijkstra with decreaseKey.
+    * @return the sum of all distances, as a check.
+    */
+   private static <H extends AddressableHeap<Entry, H>> long dijkstra( Graph g, H heap )
+   {
+       int n = g.start.length - 1;
+       long [ ] dist = new long[ n ];
+       Arrays.fill( dist, Long.MAX_VALUE );
+       @SuppressWarnings( "unchecked" )
+       Handle<Entry> [ ] handles = (Handle<Entry> [ ]) new Handle<?>[ n ];
+       boolean [ ] done = new boolean[ n ];
+
+       heap.makeEmpty( );
+       dist[ 0 ] = 0;
+       handles[ 0 ] = heap.insertHandle( new Entry( 0, 0 ) );
+       while( !heap.isEmpty( ) )
+       {
+           int v = heap.deleteMin( ).id;
+           done[ v ] = true;
+           for( int e = g.start[ v ]; e < g.start[ v + 1 ]; e++ )
+           {
+               int w = g.target[ e ];
+               long d = dist[ v ] + g.weight[ e ];
+               if( !done[ w ] && d < dist[ w ] )
+               {
+                   dist[ w ] = d;
+                   if( handles[ w ] == null )
+                       handles[ w ] = heap.insertHandle( new Entry( d, w ) );
+                   else
+                       heap.decreaseKey( handles[ w ], new Entry( d, w ) );
+               }
+           }
+       }
+       return checksum( dist );
+   }
+
+   /**
+    * Dijkstra with duplicate inserts and lazy deletion.
+    * @return the sum of all distances, as a check.
+    */
+   private static <H extends MergeableHeap<Entry, H>> long lazyDijkstra( Graph g, H heap )
+   {
+       int n = g.start.length - 1;
+       long [ ] dist = new long[ n ];
+       Arrays.fill( dist, Long.MAX_VALUE );
+
+       heap.makeEmpty( );
+       dist[ 0 ] = 0;
+       heap.insert( new Entry( 0, 0 ) );
+       while( !heap.isEmpty( ) )
+       {
+           Entry min = heap.deleteMin( );
+           int v = min.id;
+           if( min.priority > dist[ v ] )
+               continue;   // Stale duplicate
+           for( int e = g.start[ v ]; e < g.start[ v + 1 ]; e++ )
+           {
+               int w = g.target[ e ];
+               long d = dist[ v ] + g.weight[ e ];
+               if( d < dist[ w ] )
+               {
+                   dist[ w ] = d;
+                   heap.insert( new Entry( d, w ) );
+               }
+           }
+       }
+       return checksum( dist );
+   }
+
+   private static long checksum( long [ ] dist )
+   {
+       long sum = 0;
+       for( long d : dist )
+           if( d != Long.MAX_VALUE )
+               sum += d;
+       return sum;
+   }
+
+   /**
+    * The hold model of discrete event simulation.
+    * @return the time of the last event, as a check.
+    */
+   private static <H extends MergeableHeap<Entry, H>> long hold( H heap, int pending, int steps, long seed )
+   {
+       Random rnd = new Random( seed );
+
+       heap.makeEmpty( );
+       for( int i = 0; i < pending; i++ )
+           heap.insert( new Entry( rnd.nextInt( 1000000 ), i ) );
+
+       long now = 0;
+       for( int i = 0; i < steps; i++ )
+       {
+           Entry next = heap.deleteMin( );
+           now = next.priority;
+           heap.insert( new Entry( now + rnd.nextInt( 1000000 ), next.id ) );
+       }
+       return now;
+   }
+
+   public static void main( String [ ] args )
+   {
+       int numVertices = 200000;
+       int degree = 8;
+       int pending = 100000;
+       int steps = 2000000;
+       Graph g = new Graph( numVertices, degree, new Random( 100 ) );
+
+       BinomialQueue<Entry> binomial = new BinomialQueue<>( );
+       PairingHeap<Entry> pairing = new PairingHeap<>( );
+       FibonacciHeap<Entry> fibonacci = new FibonacciHeap<>( );
+
+       long expected = lazyDijkstra( g, binomial );
+       if( dijkstra( g, binomial ) != expected || dijkstra( g, pairing ) != expected
+               || dijkstra( g, fibonacci ) != expected )
+           System.out.println( "Oops! Dijkstra results differ" );
+
+       long [ ] times = new long[ 4 ];
+       for( int r = 0; r <= ROUNDS; r++ )
+       {
+           long startTime = System.nanoTime( );
+           lazyDijkstra( g, binomial );
+           long t1 = System.nanoTime( );
+           dijkstra( g, binomial );
+           long t2 = System.nanoTime( );
+           dijkstra( g, pairing );
+           long t3 = System.nanoTime( );
+           dijkstra( g, fibonacci );
+           long t4 = System.nanoTime( );
+           if( r > 0 )
+           {
+               times[ 0 ] += t1 - startTime;
+               times[ 1 ] += t2 - t1;
+               times[ 2 ] += t3 - t2;
+               times[ 3 ] += t4 - t3;
+           }
+       }
+       System.out.println( "Dijkstra, " + numVertices + " vertices, " + numVertices * degree + " edges:" );
+       System.out.println( "  BinomialQueue (lazy) " + times[ 0 ] / ROUNDS );
+       System.out.println( "  BinomialQueue        " + times[ 1 ] / ROUNDS );
+       System.out.println( "  PairingHeap          " + times[ 2 ] / ROUNDS );
+       System.out.println( "  FibonacciHeap        " + times[ 3 ] / ROUNDS );
+
+       times = new long[ 3 ];
+       for( int r = 0; r <= ROUNDS; r++ )
+       {
+           long startTime = System.nanoTime( );
+           long c1 = hold( binomial, pending, steps, r );
+           long t1 = System.nanoTime( );
+           long c2 = hold( pairing, pending, steps, r );
+           long t2 = System.nanoTime( );
+           long c3 = hold( fibonacci, pending, steps, r );
+           long t3 = System.nanoTime( );
+           if( c1 != c2 || c1 != c3 )
+               System.out.println( "Oops! hold results differ" );
+           if( r > 0 )
+           {
+               times[ 0 ] += t1 - startTime;
+               times[ 1 ] += t2 - t1;
+               times[ 2 ] += t3 - t2;
+           }
+       }
+       System.out.println( "Event simulation, " + pending + " pending, " + steps + " steps:" );
+       System.out.println( "  BinomialQueue        " + times[ 0 ] / ROUNDS );
+       System.out.println( "  PairingHeap          " + times[ 1 ] / ROUNDS );
+       System.out.println( "  FibonacciHeap        " + times[ 2 ] / ROUNDS );
+   }
+}
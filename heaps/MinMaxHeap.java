@@ -0,0 +1,335 @@
+package heaps;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+
+//MinMaxHeap class
+//
+//CONSTRUCTION: with optional capacity (that defaults to 10)
+//          or an array containing initial items
+//
+//******************PUBLIC OPERATIONS*********************
+//void insert( x )       --> Insert x
+//Comparable deleteMin( )--> Return and remove smallest item
+//Comparable deleteMax( )--> Return and remove largest item
+//Comparable findMin( )  --> Return smallest item
+//Comparable findMax( )  --> Return largest item
+//boolean isEmpty( )     --> Return true if empty; else false
+//int size( )            --> Return number of items
+//void makeEmpty( )      --> Remove all items
+//******************ERRORS********************************
+//find and delete operations return null if empty
+
+/**
+* Implements a min-max heap, a double-ended priority queue.
+* The array is laid out as in BinaryHeap, but levels alternate:
+* an item on an even level (the root is level 0) is the smallest
+* in its subtree, and one on an odd level the largest. So the
+* minimum is at the root and the maximum is one of its children.
+* Percolating moves along grandparents or grandchildren, checking
+* the parent once, so insert and both deletes take O( log N ).
+* Note that all "matching" is based on the compareTo method.
+*/
+public class MinMaxHeap<AnyType extends Comparable<? super AnyType>>
+{
+/**
+* Construct the min-max heap.
+*/
+public MinMaxHeap( )
+{
+   this( DEFAULT_CAPACITY );
+}
+
+/**
+* Construct the min-max heap.
+* @param capacity the capacity of the min-max heap.
+*/
+public MinMaxHeap( int capacity )
+{
+   currentSize = 0;
+   array = (AnyType[]) new Comparable[ capacity + 1 ];
+}
+
+/**
+* Construct the min-max heap given an array of items.
+* Runs in linear time.
+*/
+public MinMaxHeap( AnyType [ ] items )
+{
+       currentSize = items.length;
+       array = (AnyType[]) new Comparable[ ( currentSize + 2 ) * 11 / 10 ];
+
+       int i = 1;
+       for( AnyType item : items )
+           array[ i++ ] = item;
+       buildHeap( );
+}
+
+/**
+* Insert into the min-max heap, maintaining heap order.
+* Duplicates are allowed.
+* @param x the item to insert.
+*/
+public void insert( AnyType x )
+{
+   if( currentSize == array.length - 1 )
+       enlargeArray( array.length * 2 + 1 );
+
+   int hole = ++currentSize;
+   if( hole == 1 )
+   {
+       array[ 1 ] = x;
+       return;
+   }
+
+       // Decide which kind of level x belongs on, then percolate
+       // up along grandparents of that kind
+   int parent = hole / 2;
+   boolean minLevel = isMinLevel( hole );
+   if( above( array[ parent ], x, minLevel ) )
+   {
+       array[ hole ] = array[ parent ];
+       hole = parent;
+       minLevel = !minLevel;
+   }
+   for( ; hole > 3 && above( x, array[ hole / 4 ], minLevel ); hole /= 4 )
+       array[ hole ] = array[ hole / 4 ];
+   array[ hole ] = x;
+}
+
+
+private void enlargeArray( int newSize )
+{
+       AnyType [] old = array;
+       array = (AnyType []) new Comparable[ newSize ];
+       for( int i = 0; i < old.length; i++ )
+           array[ i ] = old[ i ];
+}
+
+/**
+* Find the smallest item in the min-max heap.
+* @return the smallest item, or null if empty.
+*/
+public AnyType findMin( )
+{
+   if( isEmpty( ) )
+       return null;
+   return array[ 1 ];
+}
+
+/**
+* Find the largest item in the min-max heap.
+* @return the largest item, or null if empty.
+*/
+public AnyType findMax( )
+{
+   if( isEmpty( ) )
+       return null;
+   return array[ maxIndex( ) ];
+}
+
+/**
+* Remove the smallest item from the min-max heap.
+* @return the smallest item, or null if empty.
+*/
+public AnyType deleteMin( )
+{
+   if( isEmpty( ) )
+       return null;
+
+   return removeAt( 1 );
+}
+
+/**
+* Remove the largest item from the min-max heap.
+* @return the largest item, or null if empty.
+*/
+public AnyType deleteMax( )
+{
+   if( isEmpty( ) )
+       return null;
+
+   return removeAt( maxIndex( ) );
+}
+
+/**
+* Test if the min-max heap is logically empty.
+* @return true if empty, false otherwise.
+*/
+public boolean isEmpty( )
+{
+   return currentSize == 0;
+}
+
+/**
+* Get the number of items in the min-max heap.
+* @return the size.
+*/
+public int size( )
+{
+   return currentSize;
+}
+
+/**
+* Make the min-max heap logically empty.
+*/
+public void makeEmpty( )
+{
+   for( int i = 1; i <= currentSize; i++ )
+       array[ i ] = null;
+   currentSize = 0;
+}
+
+private static final int DEFAULT_CAPACITY = 10;
+
+private int currentSize;      // Number of elements in heap
+private AnyType [ ] array;    // The heap array
+
+/**
+* Return true if index i is on a min level.
+*/
+private static boolean isMinLevel( int i )
+{
+   return ( 31 - Integer.numberOfLeadingZeros( i ) ) % 2 == 0;
+}
+
+/**
+* Return true if x belongs above y on a level of the given kind.
+*/
+private static <AnyType extends Comparable<? super AnyType>>
+boolean above( AnyType x, AnyType y, boolean minLevel )
+{
+   int c = x.compareTo( y );
+   return minLevel ? c < 0 : c > 0;
+}
+
+/**
+* Return the index of the largest item; the heap must not be empty.
+*/
+private int maxIndex( )
+{
+   if( currentSize < 3 )
+       return currentSize;
+   return array[ 3 ].compareTo( array[ 2 ] ) > 0 ? 3 : 2;
+}
+
+/**
+* Remove the item at index i, which must be 1, 2 or 3,
+* and fill the hole with the last item.
+*/
+private AnyType removeAt( int i )
+{
+   AnyType item = array[ i ];
+   array[ i ] = array[ currentSize ];
+   array[ currentSize-- ] = null;
+   if( i <= currentSize )
+       percolateDown( i );
+   return item;
+}
+
+/**
+* Establish heap order property from an arbitrary
+* arrangement of items. Runs in linear time.
+*/
+private void buildHeap( )
+{
+   for( int i = currentSize / 2; i > 0; i-- )
+       percolateDown( i );
+}
+
+/**
+* Internal method to percolate down in the min-max heap.
+* The item moves to the best of its children and grandchildren
+* while that one belongs above it. Stepping to a grandchild,
+* it trades places with the grandchild's parent if that one
+* belongs below it.
+* @param hole the index at which the percolate begins.
+*/
+private void percolateDown( int hole )
+{
+   boolean minLevel = isMinLevel( hole );
+   AnyType tmp = array[ hole ];
+
+   for( int child; ( child = hole * 2 ) <= currentSize; )
+   {
+           // Best of up to two children and four grandchildren
+       int best = child;
+       if( child + 1 <= currentSize && above( array[ child + 1 ], array[ best ], minLevel ) )
+           best = child + 1;
+       for( int g = child * 2; g <= child * 2 + 3 && g <= currentSize; g++ )
+           if( above( array[ g ], array[ best ], minLevel ) )
+               best = g;
+
+       if( !above( array[ best ], tmp, minLevel ) )
+           break;
+
+       array[ hole ] = array[ best ];
+       hole = best;
+       if( best <= child + 1 )
+           break;          // A child has no descendants to fix below
+
+       int parent = best / 2;
+       if( !above( array[ parent ], tmp, !minLevel ) )
+       {
+           AnyType t = array[ parent ];
+           array[ parent ] = tmp;
+           tmp = t;
+       }
+   }
+   array[ hole ] = tmp;
+}
+
+   // Test program; checks against a sorted list of the same items
+public static void main( String [ ] args )
+{
+   int numItems = 20000;
+   Random rnd = new Random( 100 );
+   Integer [ ] items = new Integer[ numItems ];
+   List<Integer> sorted = new ArrayList<>( );
+   for( int i = 0; i < numItems; i++ )
+   {
+       items[ i ] = rnd.nextInt( 1000 );
+       sorted.add( items[ i ] );
+   }
+   Collections.sort( sorted );
+
+   System.out.println( "Starting check." );
+
+   MinMaxHeap<Integer> h = new MinMaxHeap<>( items );
+   for( int op = 0; op < 4 * numItems; op++ )
+   {
+       int choice = rnd.nextInt( 3 );
+       if( choice == 0 )
+       {
+           Integer x = rnd.nextInt( 1000 );
+           h.insert( x );
+           int pos = Collections.binarySearch( sorted, x );
+           sorted.add( pos < 0 ? -pos - 1 : pos, x );
+       }
+       else if( sorted.isEmpty( ) )
+       {
+           if( h.deleteMin( ) != null || h.findMax( ) != null )
+               System.out.println( "Oops! not empty" );
+       }
+       else if( choice == 1 )
+       {
+           if( !h.findMin( ).equals( sorted.get( 0 ) ) ||
+                   !h.deleteMin( ).equals( sorted.remove( 0 ) ) )
+               System.out.println( "Oops! min at " + op );
+       }
+       else
+       {
+           if( !h.findMax( ).equals( sorted.get( sorted.size( ) - 1 ) ) ||
+                   !h.deleteMax( ).equals( sorted.remove( sorted.size( ) - 1 ) ) )
+               System.out.println( "Oops! max at " + op );
+       }
+       if( h.size( ) != sorted.size( ) )
+           System.out.println( "Oops! size at " + op );
+   }
+
+   System.out.println( "Check done." );
+}
+}
@@ -0,0 +1,294 @@
+package heaps;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+//MultiQueue class
+//
+//CONSTRUCTION: with the number of threads that will use it,
+//          or a number of shards and a strict flag
+//
+//******************PUBLIC OPERATIONS*********************
+//void insert( x )       --> Insert x
+//Comparable deleteMin( )--> Return and remove a small item
+//Comparable findMin( )  --> Return a small item
+//boolean isEmpty( )     --> Return true if empty; else false
+//******************ERRORS********************************
+//findMin and deleteMin return null if empty
+
+/**
+* Implements a relaxed concurrent priority queue.
+* Items are spread over several BinaryHeap shards, each guarded by
+* its own lock that is only ever tried, never waited on. insert adds
+* to a random shard; deleteMin looks at the cached minima of two
+* random shards and removes from the better one. Threads rarely meet
+* on a lock, so throughput grows with the number of cores.
+* <p>
+* The price is order: deleteMin returns an item that is near the
+* minimum, not always the minimum. With the two-choice rule the
+* expected rank of the returned item (0 for the true minimum) grows
+* linearly with the number of shards and does not depend on the
+* number of items; main measures it. In strict mode deleteMin locks
+* every shard and removes the true minimum instead, at the cost of
+* serializing deleteMin calls.
+* Note that all "matching" is based on the compareTo method.
+*/
+public class MultiQueue<AnyType extends Comparable<? super AnyType>>
+{
+/**
+* Construct a relaxed queue with DEFAULT_SHARDS_PER_THREAD shards per thread.
+* @param numThreads the number of threads that will use the queue.
+*/
+public MultiQueue( int numThreads )
+{
+   this( DEFAULT_SHARDS_PER_THREAD * numThreads, false );
+}
+
+/**
+* Construct the queue.
+* @param numShards the number of heaps; at least 1.
+* @param strict true if deleteMin must return the exact minimum.
+*/
+public MultiQueue( int numShards, boolean strict )
+{
+   if( numShards < 1 )
+       throw new IllegalArgumentException( "numShards must be positive: " + numShards );
+   this.strict = strict;
+   shards = new Shard[ numShards ];
+   for( int i = 0; i < numShards; i++ )
+       shards[ i ] = new Shard<>( );
+}
+
+/**
+* Insert into a random shard.
+* Duplicates are allowed.
+* @param x the item to insert.
+*/
+public void insert( AnyType x )
+{
+   ThreadLocalRandom rnd = ThreadLocalRandom.current( );
+   Shard<AnyType> s;
+
+   do
+       s = shards[ rnd.nextInt( shards.length ) ];
+   while( !s.lock.tryLock( ) );
+
+   try
+   {
+       s.heap.insert( x );
+       s.top = s.heap.findMin( );
+   }
+   finally
+   {
+       s.lock.unlock( );
+   }
+}
+
+/**
+* Remove a small item from the queue.
+* In relaxed mode this is the smaller minimum of two random shards;
+* in strict mode it is the smallest item.
+* @return the item, or null if the queue was empty.
+*/
+public AnyType deleteMin( )
+{
+   if( strict )
+       return strictDeleteMin( );
+
+   ThreadLocalRandom rnd = ThreadLocalRandom.current( );
+   while( true )
+   {
+       Shard<AnyType> s = better( shards[ rnd.nextInt( shards.length ) ],
+                                  shards[ rnd.nextInt( shards.length ) ] );
+       if( s.top == null )
+       {
+           if( isEmpty( ) )
+               return null;
+           continue;
+       }
+
+       if( !s.lock.tryLock( ) )
+           continue;
+       try
+       {
+           AnyType minItem = s.heap.deleteMin( );
+           s.top = s.heap.findMin( );
+           if( minItem != null )
+               return minItem;
+       }
+       finally
+       {
+           s.lock.unlock( );
+       }
+   }
+}
+
+/**
+* Find the smallest of the shard minima, without locking.
+* May be out of date by the time it returns.
+* @return a small item, or null if the queue appeared empty.
+*/
+public AnyType findMin( )
+{
+   AnyType minItem = null;
+   for( Shard<AnyType> s : shards )
+   {
+       AnyType top = s.top;
+       if( top != null && ( minItem == null || top.compareTo( minItem ) < 0 ) )
+           minItem = top;
+   }
+   return minItem;
+}
+
+/**
+* Test if every shard is empty, without locking.
+* @return true if the queue appeared empty.
+*/
+public boolean isEmpty( )
+{
+   for( Shard<AnyType> s : shards )
+       if( s.top != null )
+           return false;
+   return true;
+}
+
+/**
+* Remove the smallest item, with every shard locked in index order.
+*/
+private AnyType strictDeleteMin( )
+{
+   int locked = 0;
+   try
+   {
+       Shard<AnyType> best = null;
+       for( ; locked < shards.length; locked++ )
+       {
+           Shard<AnyType> s = shards[ locked ];
+           s.lock.lock( );
+           if( s.top != null && ( best == null || s.top.compareTo( best.top ) < 0 ) )
+               best = s;
+       }
+
+       if( best == null )
+           return null;
+       AnyType minItem = best.heap.deleteMin( );
+       best.top = best.heap.findMin( );
+       return minItem;
+   }
+   finally
+   {
+       while( locked > 0 )
+           shards[ --locked ].lock.unlock( );
+   }
+}
+
+/**
+* Return whichever shard has the smaller cached minimum.
+*/
+private Shard<AnyType> better( Shard<AnyType> a, Shard<AnyType> b )
+{
+   AnyType ta = a.top;
+   AnyType tb = b.top;
+
+   if( ta == null )
+       return b;
+   if( tb == null )
+       return a;
+   return tb.compareTo( ta ) < 0 ? b : a;
+}
+
+private static class Shard<AnyType extends Comparable<? super AnyType>>
+{
+   final ReentrantLock lock = new ReentrantLock( );
+   final BinaryHeap<AnyType> heap = new BinaryHeap<>( );
+   volatile AnyType top;   // heap.findMin( ), readable without the lock
+}
+
+private static final int DEFAULT_SHARDS_PER_THREAD = 2;
+
+private final Shard<AnyType> [ ] shards;
+private final boolean strict;
+
+   // Test program: rank error, then throughput by thread count
+public static void main( String [ ] args ) throws InterruptedException
+{
+   int numItems = 1000000;
+   Random rnd = new Random( 100 );
+
+       // Insert a permutation of 0..numItems-1, then drain. The rank of
+       // each removed item among those left is counted with a Fenwick tree.
+   for( int numShards = 1; numShards <= 64; numShards *= 4 )
+   {
+       MultiQueue<Integer> q = new MultiQueue<>( numShards, false );
+       int [ ] perm = new int[ numItems ];
+       for( int i = 0; i < numItems; i++ )
+           perm[ i ] = i;
+       for( int i = numItems - 1; i > 0; i-- )
+       {
+           int j = rnd.nextInt( i + 1 );
+           int tmp = perm[ i ];
+           perm[ i ] = perm[ j ];
+           perm[ j ] = tmp;
+       }
+       for( int x : perm )
+           q.insert( x );
+
+       int [ ] fenwick = new int[ numItems + 1 ];
+       for( int i = 1; i <= numItems; i++ )
+           for( int k = i; k <= numItems; k += k & -k )
+               fenwick[ k ]++;
+
+       long totalRank = 0;
+       int maxRank = 0;
+       for( int i = 0; i < numItems; i++ )
+       {
+           int x = q.deleteMin( );
+           int rank = 0;   // Items still present that are smaller than x
+           for( int k = x; k > 0; k -= k & -k )
+               rank += fenwick[ k ];
+           for( int k = x + 1; k <= numItems; k += k & -k )
+               fenwick[ k ]--;
+           totalRank += rank;
+           maxRank = Math.max( maxRank, rank );
+       }
+       System.out.println( numShards + " shards: mean rank error " + (double) totalRank / numItems
+               + ", max " + maxRank );
+   }
+
+   int maxThreads = Runtime.getRuntime( ).availableProcessors( );
+   final int opsPerThread = 1000000;
+   for( int numThreads = 1; numThreads <= maxThreads; numThreads *= 2 )
+   {
+       final MultiQueue<Integer> q = new MultiQueue<>( numThreads );
+       for( int i = 0; i < numItems; i++ )
+           q.insert( rnd.nextInt( ) );
+
+       Thread [ ] workers = new Thread[ numThreads ];
+       for( int t = 0; t < numThreads; t++ )
+           workers[ t ] = new Thread( )
+           {
+               public void run( )
+               {
+                   ThreadLocalRandom r = ThreadLocalRandom.current( );
+                   for( int i = 0; i < opsPerThread; i++ )
+                   {
+                       q.deleteMin( );
+                       q.insert( r.nextInt( ) );
+                   }
+               }
+           };
+
+       long startTime = System.nanoTime( );
+       for( Thread w : workers )
+           w.start( );
+       for( Thread w : workers )
+           w.join( );
+       long elapsed = System.nanoTime( ) - startTime;
+
+       System.out.println( numThreads + " threads: " + 2L * opsPerThread * numThreads * 1000000000L / elapsed
+               + " ops/s" );
+   }
+}
+}
@@ -0,0 +1,385 @@
+package heaps;
+
+
+//PairingHeap class
+//
+//CONSTRUCTION: with no initializer
+//
+//******************PUBLIC OPERATIONS*********************
+//void insert( x )       --> Insert x
+//Handle insertHandle( x ) --> Insert x, return its handle
+//Comparable deleteMin( )--> Return and remove smallest item
+//Comparable findMin( )  --> Return smallest item
+//void decreaseKey( h, newVal ) --> Lower the value of item at h
+//void merge( rhs )      --> Absorb rhs into this heap
+//boolean isEmpty( )     --> Return true if empty; else false
+//int size( )            --> Return number of items
+//void makeEmpty( )      --> Remove all items
+//******************ERRORS********************************
+//findMin and deleteMin return null if empty;
+//decreaseKey throws IllegalArgumentException for bad arguments,
+//including handles from before makeEmpty or from another heap
+
+/**
+* Implements a pairing heap.
+* Supports a decreaseKey operation.
+* Note that all "matching" is based on the compareTo method.
+* @author Mark Allen Weiss
+*/
+public class PairingHeap<AnyType extends Comparable<? super AnyType>>
+       implements AddressableHeap<AnyType, PairingHeap<AnyType>>
+{
+/**
+* Construct the pairing heap.
+*/
+public PairingHeap( )
+{
+   root = null;
+   theSize = 0;
+}
+
+/**
+* Insert into the priority queue.
+* Duplicates are allowed.
+* @param x the item to insert.
+*/
+public void insert( AnyType x )
+{
+   insertHandle( x );
+}
+
+/**
+* Insert into the priority queue, and return a Handle
+* that can be used by decreaseKey.
+* Duplicates are allowed.
+* @param x the item to insert.
+* @return the handle that contains the newly inserted item.
+*/
+public Handle<AnyType> insertHandle( AnyType x )
+{
+   PairNode<AnyType> newNode = new PairNode<>( x, owner );
+
+   if( root == null )
+       root = newNode;
+   else
+       root = compareAndLink( root, newNode );
+
+   theSize++;
+   return newNode;
+}
+
+/**
+* Find the smallest item in the priority queue.
+* @return the smallest item, or null if empty.
+*/
+public AnyType findMin( )
+{
+   if( isEmpty( ) )
+  	 return null;
+   return root.element;
+}
+
+/**
+* Remove the smallest item from the priority queue.
+* @return the smallest item, or null if empty.
+*/
+public AnyType deleteMin( )
+{
+   if( isEmpty( ) )
+  	 return null;
+
+   AnyType x = findMin( );
+   root.element = null;   // So decreaseKey can detect stale Handle
+   if( root.leftChild == null )
+       root = null;
+   else
+       root = combineSiblings( root.leftChild );
+
+   theSize--;
+   return x;
+}
+
+/**
+* Change the value of the item stored in the pairing heap.
+* @param h any Handle returned by insertHandle.
+* @param newVal the new value, which must be smaller
+*    than the currently stored value.
+* @throws IllegalArgumentException if h is stale or newVal is larger.
+*/
+public void decreaseKey( Handle<AnyType> h, AnyType newVal )
+{
+   PairNode<AnyType> p = (PairNode<AnyType>) h;
+
+   if( p.element == null || p.owner.current( ) != owner )
+       throw new IllegalArgumentException( "handle is no longer in the heap" );
+   if( p.element.compareTo( newVal ) < 0 )
+       throw new IllegalArgumentException( "new value is larger" );
+   p.owner = owner;
+   p.element = newVal;
+   if( p != root )
+   {
+       if( p.nextSibling != null )
+           p.nextSibling.prev = p.prev;
+       if( p.prev.leftChild == p )
+           p.prev.leftChild = p.nextSibling;
+       else
+           p.prev.nextSibling = p.nextSibling;
+
+       p.nextSibling = null;
+       root = compareAndLink( root, p );
+   }
+}
+
+/**
+* Merge rhs into the priority queue.
+* rhs becomes empty. rhs must be different from this.
+* Handles into rhs remain valid in this heap.
+* @param rhs the other pairing heap.
+*/
+public void merge( PairingHeap<AnyType> rhs )
+{
+   if( this == rhs || rhs.root == null )    // Avoid aliasing problems
+       return;
+
+   root = root == null ? rhs.root : compareAndLink( root, rhs.root );
+   theSize += rhs.theSize;
+
+   rhs.owner.mergeInto( owner );
+   rhs.owner = new HeapOwner( );
+   rhs.root = null;
+   rhs.theSize = 0;
+}
+
+/**
+* Test if the priority queue is logically empty.
+* @return true if empty, false otherwise.
+*/
+public boolean isEmpty( )
+{
+   return root == null;
+}
+
+/**
+* Returns number of items stored in the priority queue.
+* @return size of the priority queue.
+*/
+public int size( )
+{
+   return theSize;
+}
+
+/**
+* Make the priority queue logically empty.
+* Handles issued before are no longer accepted by decreaseKey.
+*/
+public void makeEmpty( )
+{
+   owner = new HeapOwner( );
+   root = null;
+   theSize = 0;
+}
+
+/**
+* Private static class for use with PairingHeap.
+*/
+private static class PairNode<AnyType> implements Handle<AnyType>
+{
+   /**
+    * Construct the PairNode.
+    * @param theElement the value stored in the node.
+    * @param theOwner the owner of the heap it is inserted into.
+    */
+   PairNode( AnyType theElement, HeapOwner theOwner )
+   {
+       element     = theElement;
+       owner       = theOwner;
+       leftChild   = null;
+       nextSibling = null;
+       prev        = null;
+   }
+
+   /**
+    * Returns the value stored at this handle.
+    * @return the value stored at this handle.
+    */
+   public AnyType getValue( )
+   {
+       return element;
+   }
+
+   AnyType            element;
+   HeapOwner          owner;   // Issuing heap, or one merged from
+   PairNode<AnyType> leftChild;
+   PairNode<AnyType> nextSibling;
+   PairNode<AnyType> prev;
+}
+
+private PairNode<AnyType> root;
+private int theSize;
+private HeapOwner owner = new HeapOwner( );
+
+/**
+* Internal method that is the basic operation to maintain order.
+* Links first and second together to satisfy heap order.
+* @param first root of tree 1, which may not be null.
+*    first.nextSibling MUST be null on entry.
+* @param second root of tree 2, which may be null.
+* @return result of the tree merge.
+*/
+private PairNode<AnyType> compareAndLink( PairNode<AnyType> first, PairNode<AnyType> second )
+{
+   if( second == null )
+       return first;
+
+   if( second.element.compareTo( first.element ) < 0 )
+   {
+           // Attach first as leftmost child of second
+       second.prev = first.prev;
+       first.prev = second;
+       first.nextSibling = second.leftChild;
+       if( first.nextSibling != null )
+           first.nextSibling.prev = first;
+       second.leftChild = first;
+       return second;
+   }
+   else
+   {
+           // Attach second as leftmost child of first
+       second.prev = first;
+       first.nextSibling = second.nextSibling;
+       if( first.nextSibling != null )
+           first.nextSibling.prev = first;
+       second.nextSibling = first.leftChild;
+       if( second.nextSibling != null )
+           second.nextSibling.prev = second;
+       first.leftChild = second;
+       return first;
+   }
+}
+
+private PairNode<AnyType> [ ] doubleIfFull( PairNode<AnyType> [ ] array, int index )
+{
+   if( index == array.length )
+   {
+       PairNode<AnyType> [ ] oldArray = array;
+
+       array = new PairNode[ index * 2 ];
+       for( int i = 0; i < index; i++ )
+           array[ i ] = oldArray[ i ];
+   }
+   return array;
+}
+
+   // The tree array for combineSiblings
+private PairNode<AnyType> [ ] treeArray = new PairNode[ 5 ];
+
+/**
+* Internal method that implements two-pass merging.
+* @param firstSibling the root of the conglomerate;
+*     assumed not null.
+*/
+private PairNode<AnyType> combineSiblings( PairNode<AnyType> firstSibling )
+{
+   if( firstSibling.nextSibling == null )
+       return firstSibling;
+
+       // Store the subtrees in an array
+   int numSiblings = 0;
+   for( ; firstSibling != null; numSiblings++ )
+   {
+       treeArray = doubleIfFull( treeArray, numSiblings );
+       treeArray[ numSiblings ] = firstSibling;
+       firstSibling.prev.nextSibling = null;  // break links
+       firstSibling = firstSibling.nextSibling;
+   }
+   treeArray = doubleIfFull( treeArray, numSiblings );
+   treeArray[ numSiblings ] = null;
+
+       // Combine subtrees two at a time, going left to right
+   int i = 0;
+   for( ; i + 1 < numSiblings; i += 2 )
+       treeArray[ i ] = compareAndLink( treeArray[ i ], treeArray[ i + 1 ] );
+
+   int j = i - 2;
+
+       // j has the result of last compareAndLink.
+       // If an odd number of trees, get the last one.
+   if( j == numSiblings - 3 )
+       treeArray[ j ] = compareAndLink( treeArray[ j ], treeArray[ j + 2 ] );
+
+       // Now go right to left, merging last tree with
+       // next to last. The result becomes the new last.
+   for( ; j >= 2; j -= 2 )
+       treeArray[ j - 2 ] = compareAndLink( treeArray[ j - 2 ], treeArray[ j ] );
+
+   PairNode<AnyType> result = treeArray[ 0 ];
+   for( int k = 0; k < numSiblings; k++ )     // Drop stale references
+       treeArray[ k ] = null;
+   return result;
+}
+
+   /**
+    * Check that h rejects a stale handle; used by main.
+    */
+private static void checkStale( PairingHeap<Integer> h, Handle<Integer> stale )
+{
+   try
+   {
+       h.decreaseKey( stale, 1 );
+       System.out.println( "Oops! stale handle accepted" );
+   }
+   catch( IllegalArgumentException e )
+   {
+   }
+}
+
+   // Test program
+public static void main( String [ ] args )
+{
+   PairingHeap<Integer> h = new PairingHeap<>( );
+   int numItems = 10000;
+   int i = 37;
+
+   System.out.println( "Checking; no bad output is good" );
+   for( i = 37; i != 0; i = ( i + 37 ) % numItems )
+       h.insert( i );
+   for( i = 1; i < numItems; i++ )
+       if( h.deleteMin( ) != i )
+           System.out.println( "Oops! " + i );
+
+   @SuppressWarnings( "unchecked" )
+   Handle<Integer> [ ] p = (Handle<Integer> [ ]) new Handle<?>[ numItems ];
+   for( i = 0, numItems = 40; i < numItems; i++ )
+       p[ i ] = h.insertHandle( i * 10 );
+
+   for( i = 0; i < numItems; i++ )
+       h.decreaseKey( p[ i ], p[ i ].getValue( ) - 10 * i );
+
+   PairingHeap<Integer> h1 = new PairingHeap<>( );
+   h1.insert( 5 );
+   h1.insert( -1 );
+   h.merge( h1 );
+   if( h.deleteMin( ) != -1 || h.size( ) != numItems + 1 || !h1.isEmpty( ) )
+       System.out.println( "Oops! merge" );
+
+       // Every decreased item is now 0; 5 came from h1
+   for( i = 0; i < numItems; i++ )
+       if( h.deleteMin( ) != 0 )
+           System.out.println( "Oops! decreaseKey " + i );
+   if( h.deleteMin( ) != 5 || !h.isEmpty( ) )
+       System.out.println( "Oops! last" );
+
+       // Handles from before makeEmpty, or from another heap, are rejected
+   Handle<Integer> old = h.insertHandle( 7 );
+   h.makeEmpty( );
+   h.insert( 8 );
+   Handle<Integer> other = h1.insertHandle( 9 );
+   checkStale( h, old );
+   checkStale( h, other );
+   h.merge( h1 );
+   h.decreaseKey( other, 1 );    // Valid once merged
+   if( h.deleteMin( ) != 1 || h.deleteMin( ) != 8 )
+       System.out.println( "Oops! after makeEmpty" );
+   System.out.println( "Check done." );
+}
+}
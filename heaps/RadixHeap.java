@@ -0,0 +1,278 @@
+package heaps;
+
+import java.util.Arrays;
+import java.util.Random;
+
+
+//RadixHeap class
+//
+//CONSTRUCTION: with no parameters
+//
+//******************PUBLIC OPERATIONS*********************
+//void insert( key, x )  --> Insert x with priority key
+//Object deleteMin( )    --> Return and remove item with smallest key
+//Object findMin( )      --> Return item with smallest key
+//long findMinKey( )     --> Return smallest key
+//boolean isEmpty( )     --> Return true if empty; else false
+//int size( )            --> Return number of items
+//void makeEmpty( )      --> Remove all items
+//******************ERRORS********************************
+//Throws UnderflowException as appropriate
+//insert throws IllegalArgumentException for a key below
+//the last key removed
+
+/**
+* Implements a radix heap: a monotone priority queue of items
+* with long keys (int keys widen). Keys inserted must never be
+* smaller than the last key removed, as in Dijkstra's algorithm or
+* a timer queue. Item i is kept in bucket b, where b - 1 is the
+* highest bit in which its key differs from the last key removed
+* (bucket 0 holds keys equal to it). When bucket 0 runs out, the
+* lowest nonempty bucket is emptied into lower buckets around its
+* smallest key. Each item can only move down, so insert is O( 1 ),
+* and deleteMin is amortized O( log C ) for keys spanning C.
+* No key compares are made between items except to find a bucket's
+* smallest key.
+*/
+public class RadixHeap<AnyType>
+{
+/**
+* Construct the radix heap.
+*/
+public RadixHeap( )
+{
+   keys = new long[ BUCKETS ][ ];
+   items = new Object[ BUCKETS ][ ];
+   sizes = new int[ BUCKETS ];
+   for( int b = 0; b < BUCKETS; b++ )
+   {
+       keys[ b ] = new long[ DEFAULT_CAPACITY ];
+       items[ b ] = new Object[ DEFAULT_CAPACITY ];
+   }
+   makeEmpty( );
+}
+
+/**
+* Insert into the priority queue.
+* Duplicate keys are allowed.
+* @param key the priority of x.
+* @param x the item to insert.
+* @throws IllegalArgumentException if key is below the last key removed.
+*/
+public void insert( long key, AnyType x )
+{
+   if( key < last )
+       throw new IllegalArgumentException( "Key " + key + " below last removed " + last );
+   add( bucketOf( key ), key, x );
+   currentSize++;
+}
+
+/**
+* Find the item with the smallest key in the priority queue.
+* @return the item with the smallest key.
+* @throws UnderflowException if empty.
+*/
+public AnyType findMin( )
+{
+   pull( );
+   return (AnyType) items[ 0 ][ sizes[ 0 ] - 1 ];
+}
+
+/**
+* Find the smallest key in the priority queue.
+* @return the smallest key.
+* @throws UnderflowException if empty.
+*/
+public long findMinKey( )
+{
+   pull( );
+   return last;
+}
+
+/**
+* Remove the item with the smallest key from the priority queue.
+* @return the item with the smallest key.
+* @throws UnderflowException if empty.
+*/
+public AnyType deleteMin( )
+{
+   pull( );
+   int n = --sizes[ 0 ];
+   AnyType minItem = (AnyType) items[ 0 ][ n ];
+   items[ 0 ][ n ] = null;
+   currentSize--;
+   return minItem;
+}
+
+/**
+* Test if the priority queue is logically empty.
+* @return true if empty, false otherwise.
+*/
+public boolean isEmpty( )
+{
+   return currentSize == 0;
+}
+
+/**
+* Get the number of items in the priority queue.
+* @return the size.
+*/
+public int size( )
+{
+   return currentSize;
+}
+
+/**
+* Make the priority queue logically empty.
+* Afterward any key may be inserted.
+*/
+public void makeEmpty( )
+{
+   for( int b = 0; b < BUCKETS; b++ )
+   {
+       Arrays.fill( items[ b ], 0, sizes[ b ], null );
+       sizes[ b ] = 0;
+   }
+   currentSize = 0;
+   last = Long.MIN_VALUE;
+}
+
+private static final int BUCKETS = 65;
+private static final int DEFAULT_CAPACITY = 4;
+
+private final long [ ] [ ] keys;     // Keys of each bucket
+private final Object [ ] [ ] items;  // Items of each bucket
+private final int [ ] sizes;         // Number of items in each bucket
+private int currentSize;             // Number of items in heap
+private long last;                   // Last key removed
+
+/**
+* Return the bucket for key, relative to the last key removed.
+*/
+private int bucketOf( long key )
+{
+   return 64 - Long.numberOfLeadingZeros( key ^ last );
+}
+
+/**
+* Append an item to bucket b, growing it if needed.
+*/
+private void add( int b, long key, Object x )
+{
+   int n = sizes[ b ];
+   if( n == keys[ b ].length )
+   {
+       keys[ b ] = Arrays.copyOf( keys[ b ], n * 2 );
+       items[ b ] = Arrays.copyOf( items[ b ], n * 2 );
+   }
+   keys[ b ][ n ] = key;
+   items[ b ][ n ] = x;
+   sizes[ b ] = n + 1;
+}
+
+/**
+* Make bucket 0 nonempty by redistributing the lowest nonempty
+* bucket around its smallest key, which becomes the last key.
+* @throws UnderflowException if empty.
+*/
+private void pull( )
+{
+   if( sizes[ 0 ] > 0 )
+       return;
+   if( isEmpty( ) )
+       throw new UnderflowException( );
+
+   int b = 1;
+   while( sizes[ b ] == 0 )
+       b++;
+
+   long [ ] k = keys[ b ];
+   Object [ ] x = items[ b ];
+   int n = sizes[ b ];
+   long minKey = k[ 0 ];
+   for( int i = 1; i < n; i++ )
+       if( k[ i ] < minKey )
+           minKey = k[ i ];
+
+       // Every key now differs from minKey below bit b - 1
+   last = minKey;
+   sizes[ b ] = 0;
+   for( int i = 0; i < n; i++ )
+   {
+       add( bucketOf( k[ i ] ), k[ i ], x[ i ] );
+       x[ i ] = null;
+   }
+}
+
+   // Test program; a hold model against LongBinaryHeap
+public static void main( String [ ] args )
+{
+   int numItems = 1000000;
+   int numOps = 10000000;
+   int range = 1 << 20;
+   int rounds = 5;
+   Random rnd = new Random( 100 );
+   int [ ] deltas = new int[ numOps ];
+   for( int i = 0; i < numOps; i++ )
+       deltas[ i ] = rnd.nextInt( range );
+
+   RadixHeap<Integer> r = new RadixHeap<>( );
+   LongBinaryHeap h = new LongBinaryHeap( numItems );
+   long radixTime = 0, heapTime = 0;
+
+   for( int round = 0; round <= rounds; round++ )
+   {
+       long startTime = System.nanoTime( );
+       for( int i = 0; i < numItems; i++ )
+           r.insert( deltas[ i ], null );
+       long sumR = 0;
+       for( int i = 0; i < numOps; i++ )
+       {
+           long now = r.findMinKey( );
+           r.deleteMin( );
+           sumR += now;
+           r.insert( now + deltas[ i ], null );
+       }
+       r.makeEmpty( );
+       long t1 = System.nanoTime( );
+
+       for( int i = 0; i < numItems; i++ )
+           h.insert( deltas[ i ] );
+       long sumH = 0;
+       for( int i = 0; i < numOps; i++ )
+       {
+           long now = h.deleteMin( );
+           sumH += now;
+           h.insert( now + deltas[ i ] );
+       }
+       h.makeEmpty( );
+       long t2 = System.nanoTime( );
+
+       if( sumR != sumH )
+           System.out.println( "Oops! " + sumR + " " + sumH );
+       if( round > 0 )
+       {
+           radixTime += t1 - startTime;
+           heapTime += t2 - t1;
+       }
+   }
+
+   System.out.println( "The time for " + numOps + " hold operations on " + numItems + " keys:" );
+   System.out.println( "  RadixHeap      " + radixTime / rounds );
+   System.out.println( "  LongBinaryHeap " + heapTime / rounds );
+
+   r.insert( 5, 5 );
+   r.insert( -3, -3 );
+   r.insert( 5, 6 );
+   if( r.deleteMin( ) != -3 || r.findMinKey( ) != 5 || r.size( ) != 2 )
+       System.out.println( "Oops! small" );
+   try
+   {
+       r.insert( 4, 4 );
+       System.out.println( "Oops! monotone" );
+   }
+   catch( IllegalArgumentException e )
+   {
+   }
+}
+}
@@ -0,0 +1,570 @@
+package heaps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+
+//TimerWheel class
+//
+//CONSTRUCTION: with optional start time (that defaults to 0)
+//
+//******************PUBLIC OPERATIONS*********************
+//Timer schedule( t, x ) --> Add a timer for x that expires at time t
+//boolean cancel( h )    --> Cancel timer h if still pending
+//int advance( t, out )  --> Move time to t, adding expired items to out
+//long now( )            --> Return current time
+//boolean isEmpty( )     --> Return true if no timers pending
+//int size( )            --> Return number of timers pending
+//******************ERRORS********************************
+//advance throws IllegalArgumentException if time would go backward
+
+/**
+* Implements a hierarchical timing wheel for timers with integer
+* deadlines, in ticks. Level l has 64 slots of 64^l ticks each, so
+* four levels cover 2^24 ticks; each slot is a doubly linked list
+* of timers, making schedule and cancel O( 1 ). A timer is placed on
+* the lowest level whose slot span holds its deadline along with
+* the current time. When time crosses a slot boundary, the next slot
+* of each higher level is cascaded down a level. Deadlines beyond
+* the top level wait in a BinaryHeap and are moved into the wheel
+* when time reaches their 2^24-tick block. A timer cancelled while
+* in the heap is only marked; the heap is rebuilt without marked
+* timers once they make up half of it. Each level keeps a bitmap of
+* its non-empty slots, so advance jumps straight to the next tick
+* that expires or cascades a slot instead of visiting every tick.
+* Timers expiring at the same tick are reported in no fixed order.
+*/
+public class TimerWheel<AnyType>
+{
+/**
+* A pending timer, returned by schedule for use with cancel.
+*/
+public static final class Timer<AnyType> implements Comparable<Timer<AnyType>>
+{
+   Timer( long deadline, AnyType value )
+   {
+       this.deadline = deadline;
+       this.value = value;
+   }
+
+   /**
+    * @return the time at which this timer expires.
+    */
+   public long getDeadline( )
+   {
+       return deadline;
+   }
+
+   /**
+    * @return the item given to schedule.
+    */
+   public AnyType getValue( )
+   {
+       return value;
+   }
+
+   /**
+    * @return true if this timer has neither expired nor been cancelled.
+    */
+   public boolean isPending( )
+   {
+       return slot != DONE;
+   }
+
+   public int compareTo( Timer<AnyType> rhs )
+   {
+       return deadline < rhs.deadline ? -1 : deadline == rhs.deadline ? 0 : 1;
+   }
+
+   final long deadline;
+   final AnyType value;
+   int slot = DONE;         // Index into slots, IN_HEAP, or DONE
+   Timer<AnyType> prev;     // Links within a slot
+   Timer<AnyType> next;
+}
+
+/**
+* Construct the timing wheel with time 0.
+*/
+public TimerWheel( )
+{
+   this( 0 );
+}
+
+/**
+* Construct the timing wheel.
+* @param startTime the initial time.
+*/
+public TimerWheel( long startTime )
+{
+   now = startTime;
+   slots = new Timer[ LEVELS * WHEEL_SIZE + 1 ];
+   overflow = new BinaryHeap<>( );
+}
+
+/**
+* Add a timer. A deadline at or before the current time
+* expires on the next call to advance.
+* @param deadline the time at which the timer expires.
+* @param x the item to report when it does.
+* @return the timer, for cancel.
+*/
+public Timer<AnyType> schedule( long deadline, AnyType x )
+{
+   Timer<AnyType> t = new Timer<>( deadline, x );
+   if( deadline <= now )
+       link( t, DUE );
+   else
+       place( t );
+   currentSize++;
+   return t;
+}
+
+/**
+* Cancel a timer.
+* @param t a timer returned by schedule.
+* @return true if the timer was pending; false if it had
+* already expired or been cancelled.
+*/
+public boolean cancel( Timer<AnyType> t )
+{
+   if( t.slot == DONE )
+       return false;
+
+   boolean inHeap = t.slot == IN_HEAP;
+   if( !inHeap )
+       unlink( t );
+   t.slot = DONE;
+   currentSize--;
+   if( inHeap && ++overflowCancelled > overflow.size( ) / 2 )
+       purgeOverflow( );
+   return true;
+}
+
+/**
+* Move the current time forward, expiring timers on the way.
+* Ticks at which no slot expires or cascades are skipped.
+* @param time the new current time.
+* @param expired collection that receives the item of each
+* expired timer, in deadline order between ticks.
+* @return the number of timers expired.
+* @throws IllegalArgumentException if time is before now( ).
+*/
+public int advance( long time, Collection<? super AnyType> expired )
+{
+   if( time < now )
+       throw new IllegalArgumentException( "Time " + time + " before now " + now );
+
+   int count = expireSlot( DUE, expired );
+   while( now < time )
+   {
+       long next = nextEvent( );
+       if( next > time )
+       {
+           now = time;
+           break;
+       }
+       now = next - 1;
+       count += tick( expired );
+   }
+   return count;
+}
+
+/**
+* @return the current time.
+*/
+public long now( )
+{
+   return now;
+}
+
+/**
+* Test if no timers are pending.
+* @return true if empty, false otherwise.
+*/
+public boolean isEmpty( )
+{
+   return currentSize == 0;
+}
+
+/**
+* Get the number of timers pending.
+* @return the size.
+*/
+public int size( )
+{
+   return currentSize;
+}
+
+private static final int BITS = 6;
+private static final int WHEEL_SIZE = 1 << BITS;
+private static final int LEVELS = 4;
+private static final long SPAN = 1L << BITS * LEVELS;   // Ticks covered by the wheel
+private static final int DUE = LEVELS * WHEEL_SIZE;     // Slot for past deadlines
+private static final int IN_HEAP = -1;
+private static final int DONE = -2;
+
+private long now;                          // Current time
+private int currentSize;                   // Number of timers pending
+private int wheelSize;                     // Number of timers in slots
+private int overflowCancelled;             // Cancelled timers left in the heap
+private final Timer<AnyType> [ ] slots;    // Slot lists, level by level
+private final long [ ] occupied = new long[ LEVELS ];  // Non-empty slots, bit per slot
+private final BinaryHeap<Timer<AnyType>> overflow;  // Timers beyond the wheel
+
+/**
+* Find the next time at which tick has work to do: the start of the
+* next non-empty slot on the lowest non-empty level, or, with the
+* wheel empty, the start of the block of the earliest heap deadline.
+* Occupied slots always lie after the current one within the slot
+* above, so lower levels have the earlier events.
+* @return that time, or Long.MAX_VALUE if no timers are pending.
+*/
+private long nextEvent( )
+{
+   for( int level = 0; level < LEVELS; level++ )
+   {
+       int shift = BITS * level;
+       int current = (int) ( now >> shift ) & WHEEL_SIZE - 1;
+       long later = occupied[ level ] & -2L << current;
+       if( later != 0 )
+       {
+           long windowStart = ( now >> ( shift + BITS ) ) << ( shift + BITS );
+           return windowStart + ( (long) Long.numberOfTrailingZeros( later ) << shift );
+       }
+   }
+
+   while( !overflow.isEmpty( ) && overflow.findMin( ).slot != IN_HEAP )
+   {
+       overflow.deleteMin( );
+       overflowCancelled--;
+   }
+   return overflow.isEmpty( ) ? Long.MAX_VALUE : overflow.findMin( ).deadline & ~( SPAN - 1 );
+}
+
+/**
+* Rebuild the heap without its cancelled timers.
+*/
+private void purgeOverflow( )
+{
+   List<Timer<AnyType>> live = new ArrayList<>( overflow.size( ) - overflowCancelled );
+   while( !overflow.isEmpty( ) )
+   {
+       Timer<AnyType> t = overflow.deleteMin( );
+       if( t.slot == IN_HEAP )
+           live.add( t );
+   }
+   overflow.insertAll( live );   // Sorted, so already in heap order
+   overflowCancelled = 0;
+}
+
+/**
+* Put t in its slot for the current time, or in the heap.
+* The deadline must not be before the current time.
+*/
+private void place( Timer<AnyType> t )
+{
+   long d = t.deadline;
+   for( int level = 0; level < LEVELS; level++ )
+   {
+       int shift = BITS * ( level + 1 );
+       if( d >> shift == now >> shift )
+       {
+           link( t, level * WHEEL_SIZE + ( (int) ( d >> BITS * level ) & WHEEL_SIZE - 1 ) );
+           return;
+       }
+   }
+
+   t.slot = IN_HEAP;
+   overflow.insert( t );
+}
+
+/**
+* Advance time one tick: refill the wheel from the heap and cascade
+* higher levels at their boundaries, then expire the level-0 slot.
+* @return the number of timers expired.
+*/
+private int tick( Collection<? super AnyType> expired )
+{
+   now++;
+
+   if( ( now & SPAN - 1 ) == 0 )
+       while( !overflow.isEmpty( ) && overflow.findMin( ).deadline < now + SPAN )
+       {
+           Timer<AnyType> t = overflow.deleteMin( );
+           if( t.slot == IN_HEAP )
+               place( t );
+           else
+               overflowCancelled--;
+       }
+
+       // Highest level whose slot boundary was just crossed
+   int top = 0;
+   while( top < LEVELS - 1 && ( now & ( 1L << BITS * ( top + 1 ) ) - 1 ) == 0 )
+       top++;
+
+   for( int level = top; level > 0; level-- )
+   {
+       Timer<AnyType> t = takeSlot( level * WHEEL_SIZE + ( (int) ( now >> BITS * level ) & WHEEL_SIZE - 1 ) );
+       while( t != null )
+       {
+           Timer<AnyType> next = t.next;
+           wheelSize--;
+           place( t );
+           t = next;
+       }
+   }
+
+   return expireSlot( (int) now & WHEEL_SIZE - 1, expired );
+}
+
+/**
+* Expire every timer in slot s.
+* @return the number expired.
+*/
+private int expireSlot( int s, Collection<? super AnyType> expired )
+{
+   int count = 0;
+   Timer<AnyType> t = takeSlot( s );
+   for( ; t != null; t = t.next, count++ )
+   {
+       t.slot = DONE;
+       t.prev = null;
+       expired.add( t.value );
+   }
+   wheelSize -= count;
+   currentSize -= count;
+   return count;
+}
+
+/**
+* Empty slot s.
+* @return the list it held.
+*/
+private Timer<AnyType> takeSlot( int s )
+{
+   Timer<AnyType> t = slots[ s ];
+   slots[ s ] = null;
+   if( s != DUE )
+       occupied[ s >> BITS ] &= ~( 1L << ( s & WHEEL_SIZE - 1 ) );
+   return t;
+}
+
+/**
+* Push t on the front of slot s.
+*/
+private void link( Timer<AnyType> t, int s )
+{
+   Timer<AnyType> head = slots[ s ];
+   if( head == null && s != DUE )
+       occupied[ s >> BITS ] |= 1L << ( s & WHEEL_SIZE - 1 );
+   t.slot = s;
+   t.prev = null;
+   t.next = head;
+   if( head != null )
+       head.prev = t;
+   slots[ s ] = t;
+   wheelSize++;
+}
+
+/**
+* Remove t from its slot.
+*/
+private void unlink( Timer<AnyType> t )
+{
+   if( t.prev != null )
+       t.prev.next = t.next;
+   else if( ( slots[ t.slot ] = t.next ) == null && t.slot != DUE )
+       occupied[ t.slot >> BITS ] &= ~( 1L << ( t.slot & WHEEL_SIZE - 1 ) );
+   if( t.next != null )
+       t.next.prev = t.prev;
+   t.prev = t.next = null;
+   wheelSize--;
+}
+
+   // Test program; compares against a BinaryHeap with lazy cancel.
+   // Optional argument: number of live timers (default 10000000).
+public static void main( String [ ] args )
+{
+   int live = args.length > 0 ? Integer.parseInt( args[ 0 ] ) : 10000000;
+   int numTicks = 1 << 14;
+   int perTick = 64;
+
+   check( );
+
+   long wheelTime = 0, heapTime = 0;
+   for( int r = 0; r < 3; r++ )
+   {
+       long startTime = System.nanoTime( );
+       long wheelSum = benchWheel( live, numTicks, perTick );
+       long t1 = System.nanoTime( );
+       long heapSum = benchHeap( live, numTicks, perTick );
+       long t2 = System.nanoTime( );
+
+       if( wheelSum != heapSum )
+           System.out.println( "Oops! " + wheelSum + " " + heapSum );
+       if( r > 0 )
+       {
+           wheelTime += t1 - startTime;
+           heapTime += t2 - t1;
+       }
+   }
+
+   System.out.println( "The time to fill " + live + " timers, then run " + numTicks
+           + " ticks of " + perTick + " cancel/schedule pairs:" );
+   System.out.println( "  TimerWheel " + wheelTime / 2 );
+   System.out.println( "  BinaryHeap " + heapTime / 2 );
+}
+
+private static final long NEAR = 1 << 20;
+private static final long FAR = 1L << 28;
+private static final int SEED = 100;
+
+   // Returns the sum of expired deadlines
+private static long benchWheel( int live, int numTicks, int perTick )
+{
+   Random rnd = new Random( SEED );
+   TimerWheel<Long> w = new TimerWheel<>( );
+   List<Timer<Long>> ring = new ArrayList<>( live );
+   for( int i = 0; i < live; i++ )
+   {
+       long d = 1 + nextDelay( rnd, NEAR, FAR );
+       ring.add( w.schedule( d, d ) );
+   }
+
+   long sum = 0;
+   List<Long> out = new ArrayList<>( );
+   for( int tick = 1; tick <= numTicks; tick++ )
+   {
+       for( int j = 0; j < perTick; j++ )
+       {
+           int i = rnd.nextInt( live );
+           w.cancel( ring.get( i ) );
+           long d = tick + nextDelay( rnd, NEAR, FAR );
+           ring.set( i, w.schedule( d, d ) );
+       }
+       out.clear( );
+       w.advance( tick, out );
+       for( long d : out )
+           sum += d;
+   }
+   return sum;
+}
+
+   // Same workload on a plain heap, where cancel can only mark
+private static long benchHeap( int live, int numTicks, int perTick )
+{
+   Random rnd = new Random( SEED );
+   BinaryHeap<Timer<Long>> h = new BinaryHeap<>( live );
+   List<Timer<Long>> ring = new ArrayList<>( live );
+   for( int i = 0; i < live; i++ )
+   {
+       long d = 1 + nextDelay( rnd, NEAR, FAR );
+       Timer<Long> t = new Timer<>( d, d );
+       t.slot = IN_HEAP;
+       h.insert( t );
+       ring.add( t );
+   }
+
+   long sum = 0;
+   for( int tick = 1; tick <= numTicks; tick++ )
+   {
+       for( int j = 0; j < perTick; j++ )
+       {
+           int i = rnd.nextInt( live );
+           ring.get( i ).slot = DONE;
+           long d = tick + nextDelay( rnd, NEAR, FAR );
+           Timer<Long> t = new Timer<>( d, d );
+           t.slot = IN_HEAP;
+           h.insert( t );
+           ring.set( i, t );
+       }
+       while( !h.isEmpty( ) && h.findMin( ).deadline <= tick )
+       {
+           Timer<Long> t = h.deleteMin( );
+           if( t.slot == IN_HEAP )
+           {
+               t.slot = DONE;
+               sum += t.value;
+           }
+       }
+   }
+   return sum;
+}
+
+   // Mostly near deadlines, with one in ten far enough for the overflow heap
+private static long nextDelay( Random rnd, long near, long far )
+{
+   long range = rnd.nextInt( 10 ) == 0 ? far : near;
+   return 1 + (long) ( rnd.nextDouble( ) * range );
+}
+
+   // Check expiry order and cancel against a sorted list
+private static void check( )
+{
+   Random rnd = new Random( 7 );
+   TimerWheel<Long> w = new TimerWheel<>( 12345 );
+   List<Timer<Long>> all = new ArrayList<>( );
+   for( int i = 0; i < 20000; i++ )
+   {
+       long d = 12345 + nextDelay( rnd, 5000, 1L << 26 );
+       all.add( w.schedule( d, d ) );
+   }
+   int cancelled = 0;
+   for( int i = 0; i < all.size( ); i += 3 )
+       if( w.cancel( all.get( i ) ) )
+           cancelled++;
+   if( w.cancel( all.get( 0 ) ) || w.size( ) != all.size( ) - cancelled )
+       System.out.println( "Oops! cancel" );
+
+   List<Long> out = new ArrayList<>( );
+   long last = 0;
+   int expired = 0;
+   for( long time = 12345; !w.isEmpty( ); time += 1 + rnd.nextInt( 100000 ) )
+   {
+       out.clear( );
+       expired += w.advance( time, out );
+       for( long d : out )
+       {
+           if( d > time || d < last )
+               System.out.println( "Oops! " + d + " at " + time );
+           last = d;
+       }
+   }
+   if( expired != all.size( ) - cancelled )
+       System.out.println( "Oops! expired " + expired );
+   for( Timer<Long> t : all )
+       if( t.isPending( ) )
+           System.out.println( "Oops! pending " + t.getDeadline( ) );
+
+       // Sparse timers spread over every level; one tick at a time
+       // this would take hours
+   TimerWheel<Long> sparse = new TimerWheel<>( );
+   long [ ] deadlines = { 5, 1L << 10, ( 1L << 17 ) + 3, SPAN - 1, SPAN + 7, 1L << 40 };
+   for( long d : deadlines )
+       sparse.schedule( d, d );
+   out.clear( );
+   if( sparse.advance( 1L << 41, out ) != deadlines.length || !out.equals( toList( deadlines ) ) )
+       System.out.println( "Oops! sparse " + out );
+
+       // Cancelled overflow timers are purged, not left in the heap
+   TimerWheel<Long> far = new TimerWheel<>( );
+   List<Timer<Long>> farTimers = new ArrayList<>( );
+   for( int i = 0; i < 1000; i++ )
+       farTimers.add( far.schedule( SPAN * ( i + 2 ), (long) i ) );
+   for( int i = 0; i < 900; i++ )
+       far.cancel( farTimers.get( i ) );
+   if( far.overflow.size( ) - far.overflowCancelled != 100 || far.overflow.size( ) > 200 )
+       System.out.println( "Oops! overflow " + far.overflow.size( ) );
+}
+
+private static List<Long> toList( long [ ] a )
+{
+   List<Long> list = new ArrayList<>( a.length );
+   for( long x : a )
+       list.add( x );
+   return list;
+}
+}
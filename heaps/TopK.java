@@ -0,0 +1,258 @@
+package heaps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+
+//TopK class
+//
+//CONSTRUCTION: with K and an ordering, or through
+//          largest( K ) or smallest( K )
+//
+//******************PUBLIC OPERATIONS*********************
+//boolean offer( x )     --> Keep x if it is among the best K
+//void merge( rhs )      --> Absorb the items kept by rhs
+//Object threshold( )    --> Return the worst item kept
+//List toSortedList( )   --> Return the kept items, best first
+//int size( )            --> Return number of items kept
+//boolean isEmpty( )     --> Return true if empty; else false
+//void makeEmpty( )      --> Remove all items
+//******************ERRORS********************************
+//threshold returns null if empty
+
+/**
+* Keeps the K best items seen in a stream, in O( K ) memory.
+* The items are held in a binary heap of fixed capacity K whose root
+* is the worst item kept. An item that is no better than the root is
+* rejected with a single compare; a better one replaces the root in
+* place and percolates down once. "Best" means greatest under the
+* given ordering, so largest( K ) keeps the K largest items and
+* smallest( K ) the K smallest.
+* <p>
+* For parallel use, give each thread its own TopK and merge them;
+* the result holds the K best items of all the inputs.
+*/
+public class TopK<AnyType>
+{
+/**
+* Return a selector for the k largest items.
+* @param k the number of items to keep.
+*/
+public static <AnyType extends Comparable<? super AnyType>> TopK<AnyType> largest( int k )
+{
+   return new TopK<>( k, new NaturalOrder<AnyType>( ) );
+}
+
+/**
+* Return a selector for the k smallest items.
+* @param k the number of items to keep.
+*/
+public static <AnyType extends Comparable<? super AnyType>> TopK<AnyType> smallest( int k )
+{
+   return new TopK<>( k, Collections.<AnyType>reverseOrder( ) );
+}
+
+/**
+* Construct the selector.
+* @param k the number of items to keep; at least 1.
+* @param order the ordering; the greatest items are kept.
+*/
+public TopK( int k, Comparator<? super AnyType> order )
+{
+   if( k < 1 )
+       throw new IllegalArgumentException( "k must be positive: " + k );
+   this.order = order;
+   currentSize = 0;
+   array = (AnyType[]) new Object[ k + 1 ];
+}
+
+/**
+* Offer an item to the selector.
+* @param x the item.
+* @return true if x is now among the items kept.
+*/
+public boolean offer( AnyType x )
+{
+   if( currentSize < array.length - 1 )
+   {
+           // Percolate up; the root is the worst item
+       int hole = ++currentSize;
+       for( ; hole > 1 && order.compare( x, array[ hole / 2 ] ) < 0; hole /= 2 )
+           array[ hole ] = array[ hole / 2 ];
+       array[ hole ] = x;
+       return true;
+   }
+
+   if( order.compare( x, array[ 1 ] ) <= 0 )
+       return false;
+
+   array[ 1 ] = x;
+   percolateDown( 1 );
+   return true;
+}
+
+/**
+* Offer every item kept by rhs to this selector.
+* rhs is unchanged. rhs must be different from this.
+* @param rhs the other selector, which should use the same ordering.
+*/
+public void merge( TopK<? extends AnyType> rhs )
+{
+   if( this == rhs )    // Avoid aliasing problems
+       return;
+
+   for( int i = 1; i <= rhs.currentSize; i++ )
+       offer( rhs.array[ i ] );
+}
+
+/**
+* Return the worst item kept, which a new item must beat
+* once K items are kept.
+* @return the worst item kept, or null if empty.
+*/
+public AnyType threshold( )
+{
+   if( isEmpty( ) )
+  	 return null;
+   return array[ 1 ];
+}
+
+/**
+* Return the items kept, best first.
+* @return a new list of the items.
+*/
+public List<AnyType> toSortedList( )
+{
+   AnyType [ ] items = Arrays.copyOfRange( array, 1, currentSize + 1 );
+   Arrays.sort( items, Collections.reverseOrder( order ) );
+   return new ArrayList<>( Arrays.asList( items ) );
+}
+
+/**
+* Get the number of items kept.
+* @return the size.
+*/
+public int size( )
+{
+   return currentSize;
+}
+
+/**
+* Test if the selector is logically empty.
+* @return true if empty, false otherwise.
+*/
+public boolean isEmpty( )
+{
+   return currentSize == 0;
+}
+
+/**
+* Make the selector logically empty.
+*/
+public void makeEmpty( )
+{
+   for( int i = 1; i <= currentSize; i++ )
+       array[ i ] = null;
+   currentSize = 0;
+}
+
+private static class NaturalOrder<AnyType extends Comparable<? super AnyType>>
+       implements Comparator<AnyType>
+{
+   public int compare( AnyType lhs, AnyType rhs )
+   {
+       return lhs.compareTo( rhs );
+   }
+}
+
+private final Comparator<? super AnyType> order;
+private int currentSize;      // Number of items kept
+private AnyType [ ] array;    // The heap array, worst item at 1
+
+/**
+* Internal method to percolate down in the heap.
+* @param hole the index at which the percolate begins.
+*/
+private void percolateDown( int hole )
+{
+   int child;
+   AnyType tmp = array[ hole ];
+
+   for( ; hole * 2 <= currentSize; hole = child )
+   {
+       child = hole * 2;
+       if( child != currentSize &&
+               order.compare( array[ child + 1 ], array[ child ] ) < 0 )
+           child++;
+       if( order.compare( array[ child ], tmp ) < 0 )
+           array[ hole ] = array[ child ];
+       else
+           break;
+   }
+   array[ hole ] = tmp;
+}
+
+   // Test program
+public static void main( String [ ] args ) throws InterruptedException
+{
+   final int numItems = 10000000;
+   final int k = 100;
+   final Integer [ ] items = new Integer[ numItems ];
+   Random rnd = new Random( 100 );
+   for( int i = 0; i < numItems; i++ )
+       items[ i ] = rnd.nextInt( );
+
+   Integer [ ] sorted = items.clone( );
+   Arrays.sort( sorted );
+
+   TopK<Integer> large = TopK.largest( k );
+   TopK<Integer> small = TopK.smallest( k );
+   long startTime = System.nanoTime( );
+   for( Integer x : items )
+       large.offer( x );
+   System.out.println( "The time for " + numItems + " offers is " + ( System.nanoTime( ) - startTime ) );
+   for( Integer x : items )
+       small.offer( x );
+
+   List<Integer> top = large.toSortedList( );
+   List<Integer> bottom = small.toSortedList( );
+   for( int i = 0; i < k; i++ )
+       if( !top.get( i ).equals( sorted[ numItems - 1 - i ] ) || !bottom.get( i ).equals( sorted[ i ] ) )
+           System.out.println( "Oops! " + i );
+
+       // Per-thread selectors, merged
+   final int numThreads = 4;
+   final List<TopK<Integer>> parts = new ArrayList<>( );
+   Thread [ ] workers = new Thread[ numThreads ];
+   for( int t = 0; t < numThreads; t++ )
+   {
+       final TopK<Integer> part = TopK.largest( k );
+       final int from = t * numItems / numThreads;
+       final int to = ( t + 1 ) * numItems / numThreads;
+       parts.add( part );
+       workers[ t ] = new Thread( )
+       {
+           public void run( )
+           {
+               for( int i = from; i < to; i++ )
+                   part.offer( items[ i ] );
+           }
+       };
+       workers[ t ].start( );
+   }
+   TopK<Integer> merged = TopK.largest( k );
+   for( int t = 0; t < numThreads; t++ )
+   {
+       workers[ t ].join( );
+       merged.merge( parts.get( t ) );
+   }
+   if( !merged.toSortedList( ).equals( top ) )
+       System.out.println( "Oops! merge" );
+
+   System.out.println( "Check done." );
+}
+}
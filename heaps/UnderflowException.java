@@ -0,0 +1,20 @@
+package heaps;
+
+/**
+ * Exception class for access in empty containers
+ * such as stacks, queues, and priority queues.
+ * @author Mark Allen Weiss
+ */
+public class UnderflowException extends RuntimeException
+{
+    private static final long serialVersionUID = 1L;
+
+    public UnderflowException( )
+    {
+    }
+
+    public UnderflowException( String message )
+    {
+        super( message );
+    }
+}
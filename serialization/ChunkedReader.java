@@ -0,0 +1,107 @@
+package serialization;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reads primitives from a channel through one fixed-size buffer.
+ * The buffer is refilled whenever it runs short, so memory use does
+ * not depend on the size of the stream. The channel is not closed,
+ * but the reader may have consumed bytes past the last value read,
+ * so one channel should hold one structure.
+ */
+public class ChunkedReader
+{
+    /**
+     * Construct a reader with the default chunk size.
+     * @param in the channel to read from.
+     */
+    public ChunkedReader( ReadableByteChannel in )
+    {
+        this( in, StreamFormat.DEFAULT_CHUNK_SIZE );
+    }
+
+    /**
+     * Construct a reader.
+     * @param in the channel to read from.
+     * @param chunkSize the buffer size in bytes; at least 8.
+     */
+    public ChunkedReader( ReadableByteChannel in, int chunkSize )
+    {
+        if( chunkSize < 8 )
+            throw new IllegalArgumentException( "chunk size too small: " + chunkSize );
+        this.in = in;
+        buf = ByteBuffer.allocateDirect( chunkSize );
+        buf.limit( 0 );
+    }
+
+    /**
+     * Read and check the stream header.
+     * @param kind the structure kind expected, from StreamFormat.
+     * @throws StreamCorruptedException if the header does not match.
+     */
+    public void readHeader( int kind ) throws IOException
+    {
+        if( readInt( ) != StreamFormat.MAGIC )
+            throw new StreamCorruptedException( "bad magic number" );
+
+        int version = readInt( );
+        if( version != StreamFormat.VERSION )
+            throw new StreamCorruptedException( "unsupported version " + version );
+
+        int actual = readInt( );
+        if( actual != kind )
+            throw new StreamCorruptedException( "expected kind " + kind + ", found " + actual );
+    }
+
+    public int readInt( ) throws IOException
+    {
+        require( 4 );
+        return buf.getInt( );
+    }
+
+    public long readLong( ) throws IOException
+    {
+        require( 8 );
+        return buf.getLong( );
+    }
+
+    /**
+     * Read exactly len bytes, refilling the buffer as needed.
+     */
+    public void readBytes( byte [ ] b, int off, int len ) throws IOException
+    {
+        while( len > 0 )
+        {
+            if( !buf.hasRemaining( ) )
+                require( 1 );
+
+            int n = Math.min( len, buf.remaining( ) );
+            buf.get( b, off, n );
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Make sure at least n bytes are buffered.
+     * @throws EOFException if the stream ends first.
+     */
+    private void require( int n ) throws IOException
+    {
+        if( buf.remaining( ) >= n )
+            return;
+
+        buf.compact( );
+        while( buf.position( ) < n )
+            if( in.read( buf ) < 0 )
+                throw new EOFException( );
+        buf.flip( );
+    }
+
+    private final ReadableByteChannel in;
+    private final ByteBuffer buf;
+}
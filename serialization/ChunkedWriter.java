@@ -0,0 +1,104 @@
+package serialization;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writes primitives to a channel through one fixed-size buffer.
+ * The buffer is written out whenever it cannot hold the next value,
+ * so memory use does not depend on the size of the stream.
+ * Call flush when done; the channel is not closed.
+ */
+public class ChunkedWriter
+{
+    /**
+     * Construct a writer with the default chunk size.
+     * @param out the channel to write to.
+     */
+    public ChunkedWriter( WritableByteChannel out )
+    {
+        this( out, StreamFormat.DEFAULT_CHUNK_SIZE );
+    }
+
+    /**
+     * Construct a writer.
+     * @param out the channel to write to.
+     * @param chunkSize the buffer size in bytes; at least 8.
+     */
+    public ChunkedWriter( WritableByteChannel out, int chunkSize )
+    {
+        if( chunkSize < 8 )
+            throw new IllegalArgumentException( "chunk size too small: " + chunkSize );
+        this.out = out;
+        buf = ByteBuffer.allocateDirect( chunkSize );
+    }
+
+    /**
+     * Write the stream header.
+     * @param kind the structure kind from StreamFormat.
+     */
+    public void writeHeader( int kind ) throws IOException
+    {
+        writeInt( StreamFormat.MAGIC );
+        writeInt( StreamFormat.VERSION );
+        writeInt( kind );
+    }
+
+    public void writeByte( int v ) throws IOException
+    {
+        if( !buf.hasRemaining( ) )
+            writeChunk( );
+        buf.put( (byte) v );
+    }
+
+    public void writeInt( int v ) throws IOException
+    {
+        if( buf.remaining( ) < 4 )
+            writeChunk( );
+        buf.putInt( v );
+    }
+
+    public void writeLong( long v ) throws IOException
+    {
+        if( buf.remaining( ) < 8 )
+            writeChunk( );
+        buf.putLong( v );
+    }
+
+    /**
+     * Write bytes, splitting them across chunks as needed.
+     */
+    public void writeBytes( byte [ ] b, int off, int len ) throws IOException
+    {
+        while( len > 0 )
+        {
+            if( !buf.hasRemaining( ) )
+                writeChunk( );
+
+            int n = Math.min( len, buf.remaining( ) );
+            buf.put( b, off, n );
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Write out everything buffered so far.
+     */
+    public void flush( ) throws IOException
+    {
+        writeChunk( );
+    }
+
+    private void writeChunk( ) throws IOException
+    {
+        buf.flip( );
+        while( buf.hasRemaining( ) )
+            out.write( buf );
+        buf.clear( );
+    }
+
+    private final WritableByteChannel out;
+    private final ByteBuffer buf;
+}
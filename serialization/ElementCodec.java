@@ -0,0 +1,13 @@
+package serialization;
+
+import java.io.IOException;
+
+/**
+ * Converts elements to and from the binary stream format.
+ * Implementations must read back exactly the bytes they wrote.
+ */
+public interface ElementCodec<AnyType>
+{
+    void encode( AnyType x, ChunkedWriter out ) throws IOException;
+    AnyType decode( ChunkedReader in ) throws IOException;
+}
@@ -0,0 +1,19 @@
+package serialization;
+
+import java.io.IOException;
+
+/**
+ * Codec for Integer elements, four bytes each.
+ */
+public class IntegerCodec implements ElementCodec<Integer>
+{
+    public void encode( Integer x, ChunkedWriter out ) throws IOException
+    {
+        out.writeInt( x );
+    }
+
+    public Integer decode( ChunkedReader in ) throws IOException
+    {
+        return in.readInt( );
+    }
+}
@@ -0,0 +1,34 @@
+package serialization;
+
+/**
+ * Constants of the binary stream format shared by the
+ * hash tables and heaps.
+ * <p>
+ * Every stream starts with a header of MAGIC (int), VERSION (int)
+ * and a structure kind (int), all big-endian, followed by a
+ * structure-specific body. Elements are written by an ElementCodec
+ * one after another, so the body can be read back in chunks of any
+ * size without holding the whole stream in memory.
+ */
+public final class StreamFormat
+{
+    public static final int MAGIC   = 0x4C445331;   // "LDS1"
+    public static final int VERSION = 1;
+
+        // Structure kinds
+    public static final int QUADRATIC_PROBING_HASH_TABLE = 1;
+    public static final int SEPARATE_CHAINING_HASH_TABLE = 2;
+    public static final int CUCKOO_HASH_TABLE            = 3;
+    public static final int BINARY_HEAP                  = 4;
+    public static final int OPERATION_TRACE              = 5;
+
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+        // Limits on sizes read from a stream, checked before allocating
+    public static final int MAX_TABLE_LENGTH = 1 << 30;      // Saved hash table length
+    public static final int MAX_PREALLOCATED_ITEMS = 1 << 20; // Heap items reserved up front
+
+    private StreamFormat( )
+    {
+    }
+}
@@ -0,0 +1,29 @@
+package serialization;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Codec for String elements, as a byte count followed by UTF-8 bytes.
+ */
+public class StringCodec implements ElementCodec<String>
+{
+    public void encode( String x, ChunkedWriter out ) throws IOException
+    {
+        byte [ ] bytes = x.getBytes( StandardCharsets.UTF_8 );
+        out.writeInt( bytes.length );
+        out.writeBytes( bytes, 0, bytes.length );
+    }
+
+    public String decode( ChunkedReader in ) throws IOException
+    {
+        int length = in.readInt( );
+        if( length < 0 )
+            throw new StreamCorruptedException( "negative string length " + length );
+
+        byte [ ] bytes = new byte[ length ];
+        in.readBytes( bytes, 0, length );
+        return new String( bytes, StandardCharsets.UTF_8 );
+    }
+}
@@ -0,0 +1,91 @@
+package stringgenerator;
+
+/**
+ * Distribution of generated key lengths.
+ */
+public abstract class KeyLength
+{
+	/**
+	 * Draw a length, at least 1, from rnd.
+	 */
+	public abstract int next(Xoshiro256 rnd);
+
+	/**
+	 * Return the largest length this distribution can draw.
+	 */
+	public abstract int max();
+
+	/**
+	 * Every key has length len.
+	 */
+	public static KeyLength fixed(final int len)
+	{
+		checkLength(len);
+		return new KeyLength()
+		{
+			public int next(Xoshiro256 rnd)
+			{
+				return len;
+			}
+
+			public int max()
+			{
+				return len;
+			}
+		};
+	}
+
+	/**
+	 * Lengths uniform in [min, max].
+	 */
+	public static KeyLength uniform(final int min, final int max)
+	{
+		checkLength(min);
+		if (max < min)
+			throw new IllegalArgumentException("max " + max + " below min " + min);
+		return new KeyLength()
+		{
+			public int next(Xoshiro256 rnd)
+			{
+				return min + rnd.nextInt(max - min + 1);
+			}
+
+			public int max()
+			{
+				return max;
+			}
+		};
+	}
+
+	/**
+	 * Lengths min + k, where k is geometric with the given mean and
+	 * capped so the length never exceeds max: mostly short keys
+	 * with a long tail, as in typical identifiers and URLs.
+	 */
+	public static KeyLength geometric(final int min, final double mean, final int max)
+	{
+		checkLength(min);
+		if (max < min || mean <= 0)
+			throw new IllegalArgumentException("bad geometric lengths: " + min + ", " + mean + ", " + max);
+		final double logQ = Math.log(mean / (mean + 1));
+		return new KeyLength()
+		{
+			public int next(Xoshiro256 rnd)
+			{
+				double k = Math.floor(Math.log(1 - rnd.nextDouble()) / logQ);
+				return (int) Math.min(max, min + k);
+			}
+
+			public int max()
+			{
+				return max;
+			}
+		};
+	}
+
+	private static void checkLength(int len)
+	{
+		if (len < 1)
+			throw new IllegalArgumentException("length must be positive: " + len);
+	}
+}
@@ -0,0 +1,99 @@
+package stringgenerator;
+
+/**
+ * Distribution of which key, among n, an operation touches.
+ * Draws an index in [0, n); with the skewed distributions the
+ * low indices are the popular ones.
+ */
+public abstract class KeyPopularity
+{
+	protected final int n;
+
+	protected KeyPopularity(int n)
+	{
+		if (n < 1)
+			throw new IllegalArgumentException("need at least one key: " + n);
+		this.n = n;
+	}
+
+	/**
+	 * Draw a key index in [0, n) from rnd.
+	 */
+	public abstract int next(Xoshiro256 rnd);
+
+	/**
+	 * Every key equally likely.
+	 */
+	public static KeyPopularity uniform(int n)
+	{
+		return new KeyPopularity(n)
+		{
+			public int next(Xoshiro256 rnd)
+			{
+				return rnd.nextInt(this.n);
+			}
+		};
+	}
+
+	/**
+	 * Key i has probability proportional to 1 / (i + 1)^theta, with
+	 * theta in (0, 1); 0.99 is the usual choice. Uses the method of
+	 * Gray et al., "Quickly Generating Billion-Record Synthetic
+	 * Databases", with O(n) setup and O(1) per draw.
+	 */
+	public static KeyPopularity zipfian(int n, final double theta)
+	{
+		if (!(theta > 0 && theta < 1))
+			throw new IllegalArgumentException("theta must be in (0, 1): " + theta);
+		return new KeyPopularity(n)
+		{
+			final double zetaN = zeta(this.n, theta);
+			final double alpha = 1 / (1 - theta);
+			final double eta = (1 - Math.pow(2.0 / this.n, 1 - theta)) / (1 - zeta(2, theta) / zetaN);
+			final double half = 1 + Math.pow(0.5, theta);
+
+			public int next(Xoshiro256 rnd)
+			{
+				double u = rnd.nextDouble();
+				double uz = u * zetaN;
+				if (uz < 1)
+					return 0;
+				if (uz < half && this.n > 1)
+					return 1;
+				int i = (int) (this.n * Math.pow(eta * u - eta + 1, alpha));
+				return Math.min(i, this.n - 1);
+			}
+		};
+	}
+
+	/**
+	 * A hot set of the first hotKeys * n keys receives hotOps of the
+	 * operations, uniformly; the rest go uniformly to the other keys.
+	 * hotKeys must be in (0, 1] and hotOps in [0, 1].
+	 */
+	public static KeyPopularity hotspot(int n, final double hotKeys, final double hotOps)
+	{
+		if (!(hotKeys > 0 && hotKeys <= 1 && hotOps >= 0 && hotOps <= 1))
+			throw new IllegalArgumentException("hotKeys must be in (0, 1] and hotOps in [0, 1]: "
+					+ hotKeys + ", " + hotOps);
+		return new KeyPopularity(n)
+		{
+			final int hot = Math.max(1, (int) (this.n * hotKeys));
+
+			public int next(Xoshiro256 rnd)
+			{
+				if (hot == this.n || rnd.nextDouble() < hotOps)
+					return rnd.nextInt(hot);
+				return hot + rnd.nextInt(this.n - hot);
+			}
+		};
+	}
+
+	private static double zeta(int n, double theta)
+	{
+		double sum = 0;
+		for (int i = 1; i <= n; i++)
+			sum += 1 / Math.pow(i, theta);
+		return sum;
+	}
+}
@@ -1,25 +1,207 @@
 package stringgenerator;
 
+import java.nio.charset.StandardCharsets;
 import java.security.SecureRandom;
+import java.util.Arrays;
 
 
+/**
+ * Generates random alphanumeric keys for benchmarks.
+ * Draws come from a Xoshiro256, and each draw yields three characters.
+ * The no-argument constructor seeds it from SecureRandom, so separate
+ * generators give different keys; pass a seed, or use split() or
+ * stream(), for a reproducible run. An instance is not
+ * thread-safe: give each thread its own with split() or stream().
+ */
 public class RandomStringGenerator
 {
 	static final String AB = "0123456789qwertyuiopasdfghjklzxcvbnmQWERTYUIOPASDFGHJKLZXCVBNM";
-	static SecureRandom rnd = new SecureRandom();
-	
+	static final byte[] CHARS = AB.getBytes(StandardCharsets.US_ASCII);
+	static final SecureRandom SEEDS = new SecureRandom();
+
+	private final Xoshiro256 rnd;
+	private final KeyLength lengths;
+	private char[] buf;
+
+	/**
+	 * Keys of length 1 to 9 from a fresh random seed.
+	 */
+	public RandomStringGenerator()
+	{
+		this(SEEDS.nextLong());
+	}
+
+	/**
+	 * Keys of length 1 to 9 from the given seed.
+	 */
+	public RandomStringGenerator(long seed)
+	{
+		this(seed, KeyLength.uniform(1, 9));
+	}
+
+	/**
+	 * Keys with the given lengths from the given seed.
+	 */
+	public RandomStringGenerator(long seed, KeyLength lengths)
+	{
+		this(new Xoshiro256(seed), lengths);
+	}
+
+	private RandomStringGenerator(Xoshiro256 rnd, KeyLength lengths)
+	{
+		this.rnd = rnd;
+		this.lengths = lengths;
+		this.buf = new char[16];
+	}
+
+	/**
+	 * Return generator number index for seed; use one per thread.
+	 * The streams of different indices never overlap.
+	 */
+	public static RandomStringGenerator stream(long seed, int index, KeyLength lengths)
+	{
+		return new RandomStringGenerator(Xoshiro256.stream(seed, index), lengths);
+	}
+
+	/**
+	 * Return a generator with the same lengths on an independent stream.
+	 */
+	public RandomStringGenerator split()
+	{
+		return new RandomStringGenerator(rnd.split(), lengths);
+	}
+
+	/**
+	 * The underlying generator, for drawing key indices with a
+	 * KeyPopularity in the same reproducible stream.
+	 */
+	public Xoshiro256 random()
+	{
+		return rnd;
+	}
+
 	public String RandomString()
 	{
-		return RandomString(rnd.nextInt(9)+1);
+		return RandomString(lengths.next(rnd));
 	}
-	
+
 	public String RandomString(int len)
 	{
-		StringBuilder sb = new StringBuilder(len);
-		for (int i=0; i<len; i++)
+		if (buf.length < len)
+			buf = new char[Math.max(len, buf.length * 2)];
+		for (int i = 0; i < len; )
 		{
-			sb.append(AB.charAt(rnd.nextInt(AB.length())));
+			long bits = rnd.nextLong();
+			for (int j = 0; j < 3 && i < len; j++, i++, bits >>>= 21)
+				buf[i] = (char) CHARS[pick(bits)];
 		}
-		return sb.toString();
+		return new String(buf, 0, len);
+	}
+
+	/**
+	 * Fill out with keys.
+	 */
+	public void fill(String[] out)
+	{
+		for (int i = 0; i < out.length; i++)
+			out[i] = RandomString();
+	}
+
+	/**
+	 * Write keys back to back into out, as ASCII bytes, while they fit.
+	 * Key i ends just before index ends[i] and starts at ends[i - 1],
+	 * or at 0 for the first key.
+	 * @return the number of keys written, at most ends.length.
+	 */
+	public int fill(byte[] out, int[] ends)
+	{
+		int pos = 0;
+		for (int k = 0; k < ends.length; k++)
+		{
+			int len = lengths.next(rnd);
+			if (pos + len > out.length)
+				return k;
+			for (int i = 0; i < len; )
+			{
+				long bits = rnd.nextLong();
+				for (int j = 0; j < 3 && i < len; j++, i++, bits >>>= 21)
+					out[pos + i] = CHARS[pick(bits)];
+			}
+			pos += len;
+			ends[k] = pos;
+		}
+		return ends.length;
+	}
+
+	/**
+	 * Map the low 21 bits to an index in [0, 62) by multiply-shift;
+	 * the bias is below 62 / 2^21.
+	 */
+	private static int pick(long bits)
+	{
+		return (int) (((bits & 0x1FFFFF) * 62) >>> 21);
+	}
+
+	// Compares against the old SecureRandom and StringBuilder generator
+	public static void main(String[] args)
+	{
+		int numKeys = 1000000;
+		int rounds = 5;
+
+		RandomStringGenerator a = new RandomStringGenerator(42);
+		RandomStringGenerator b = new RandomStringGenerator(42);
+		for (int i = 0; i < 1000; i++)
+			if (!a.RandomString().equals(b.RandomString()))
+				System.out.println("Oops! not reproducible");
+		if (a.split().RandomString(20).equals(a.RandomString(20)))
+			System.out.println("Oops! split streams agree");
+
+		SecureRandom secure = new SecureRandom();
+		String[] keys = new String[numKeys];
+		byte[] bytes = new byte[numKeys * 9];
+		int[] ends = new int[numKeys];
+		long oldTime = 0, newTime = 0, bulkTime = 0, byteTime = 0;
+		for (int r = 0; r <= rounds; r++)
+		{
+			long t0 = System.nanoTime();
+			for (int i = 0; i < numKeys; i++)
+			{
+				int len = secure.nextInt(9) + 1;
+				StringBuilder sb = new StringBuilder(len);
+				for (int j = 0; j < len; j++)
+					sb.append(AB.charAt(secure.nextInt(AB.length())));
+				keys[i] = sb.toString();
+			}
+			long t1 = System.nanoTime();
+			for (int i = 0; i < numKeys; i++)
+				keys[i] = a.RandomString();
+			long t2 = System.nanoTime();
+			a.fill(keys);
+			long t3 = System.nanoTime();
+			if (a.fill(bytes, ends) != numKeys)
+				System.out.println("Oops! bytes full");
+			long t4 = System.nanoTime();
+			if (r > 0)
+			{
+				oldTime += t1 - t0;
+				newTime += t2 - t1;
+				bulkTime += t3 - t2;
+				byteTime += t4 - t3;
+			}
+		}
+		System.out.println("The time to generate " + numKeys + " keys:");
+		System.out.println("  SecureRandom       " + oldTime / rounds);
+		System.out.println("  RandomString()     " + newTime / rounds);
+		System.out.println("  fill(String[])     " + bulkTime / rounds);
+		System.out.println("  fill(byte[], int[]) " + byteTime / rounds);
+
+		int n = 1000;
+		int[] counts = new int[n];
+		KeyPopularity zipf = KeyPopularity.zipfian(n, 0.99);
+		for (int i = 0; i < numKeys; i++)
+			counts[zipf.next(a.random())]++;
+		Arrays.sort(counts);
+		System.out.println("Zipfian 0.99 over " + n + " keys: top key gets "
+				+ 100.0 * counts[n - 1] / numKeys + "% of draws");
 	}
 }
@@ -0,0 +1,138 @@
+package stringgenerator;
+
+/**
+ * Seeded pseudo-random generator: xoshiro256** by Blackman and Vigna.
+ * Fast, not cryptographic, and fully determined by its seed.
+ * An instance is not thread-safe; give each thread its own stream
+ * with split() or stream(seed, index), which are 2^128 draws apart
+ * and so never overlap in practice.
+ */
+public class Xoshiro256
+{
+	private long s0, s1, s2, s3;
+
+	/**
+	 * Create a generator whose whole sequence is fixed by seed.
+	 * The four state words are filled from seed by SplitMix64.
+	 */
+	public Xoshiro256(long seed)
+	{
+		s0 = splitMix(seed += GOLDEN);
+		s1 = splitMix(seed += GOLDEN);
+		s2 = splitMix(seed += GOLDEN);
+		s3 = splitMix(seed += GOLDEN);
+	}
+
+	private Xoshiro256(long s0, long s1, long s2, long s3)
+	{
+		this.s0 = s0;
+		this.s1 = s1;
+		this.s2 = s2;
+		this.s3 = s3;
+	}
+
+	/**
+	 * Return stream number index of the generator seeded with seed.
+	 * Stream 0 is new Xoshiro256(seed); each following stream starts
+	 * 2^128 draws later. Use one index per thread.
+	 */
+	public static Xoshiro256 stream(long seed, int index)
+	{
+		Xoshiro256 g = new Xoshiro256(seed);
+		for (int i = 0; i < index; i++)
+			g.jump();
+		return g;
+	}
+
+	/**
+	 * Return a generator that continues this one's sequence, and
+	 * move this one 2^128 draws ahead, so the two never overlap.
+	 */
+	public Xoshiro256 split()
+	{
+		Xoshiro256 copy = new Xoshiro256(s0, s1, s2, s3);
+		jump();
+		return copy;
+	}
+
+	public long nextLong()
+	{
+		long result = Long.rotateLeft(s1 * 5, 7) * 9;
+		long t = s1 << 17;
+		s2 ^= s0;
+		s3 ^= s1;
+		s1 ^= s2;
+		s0 ^= s3;
+		s2 ^= t;
+		s3 = Long.rotateLeft(s3, 45);
+		return result;
+	}
+
+	public int nextInt()
+	{
+		return (int) (nextLong() >>> 32);
+	}
+
+	/**
+	 * Return a value in [0, bound), by Lemire's multiply-shift with
+	 * rejection, so no division and no bias.
+	 */
+	public int nextInt(int bound)
+	{
+		if (bound <= 0)
+			throw new IllegalArgumentException("bound must be positive: " + bound);
+		long m = (nextLong() >>> 32) * bound;
+		if ((m & 0xFFFFFFFFL) < bound)
+		{
+			long threshold = (0x100000000L - bound) % bound;
+			while ((m & 0xFFFFFFFFL) < threshold)
+				m = (nextLong() >>> 32) * bound;
+		}
+		return (int) (m >>> 32);
+	}
+
+	/**
+	 * Return a value in [0, 1) with 53 random bits.
+	 */
+	public double nextDouble()
+	{
+		return (nextLong() >>> 11) * 0x1.0p-53;
+	}
+
+	private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+	private static final long[] JUMP = {
+		0x180ec6d33cfd0abaL, 0xd5a61266f0c9392cL,
+		0xa9582618e03fc9aaL, 0x39abdc4529b1661cL };
+
+	/**
+	 * Advance the state by 2^128 draws.
+	 */
+	private void jump()
+	{
+		long t0 = 0, t1 = 0, t2 = 0, t3 = 0;
+		for (long word : JUMP)
+			for (int b = 0; b < 64; b++)
+			{
+				if ((word & 1L << b) != 0)
+				{
+					t0 ^= s0;
+					t1 ^= s1;
+					t2 ^= s2;
+					t3 ^= s3;
+				}
+				nextLong();
+			}
+		s0 = t0;
+		s1 = t1;
+		s2 = t2;
+		s3 = t3;
+	}
+
+	private static long splitMix(long z)
+	{
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
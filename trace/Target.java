@@ -0,0 +1,21 @@
+package trace;
+
+/**
+ * A structure that trace operations can be applied to.
+ * Operations a structure does not support throw
+ * UnsupportedOperationException.
+ */
+public interface Target
+{
+    int INSERT     = 1;
+    int REMOVE     = 2;
+    int CONTAINS   = 3;
+    int DELETE_MIN = 4;   // Key is ignored; recorded as empty
+
+    /**
+     * Apply one operation.
+     * @param op one of the operation codes above.
+     * @param key the key; ignored by DELETE_MIN.
+     */
+    void apply( int op, String key );
+}
@@ -0,0 +1,166 @@
+package trace;
+
+import hashTable.CuckooHashTable;
+import hashTable.QuadraticProbingHashTable;
+import hashTable.SeparateChainingHashTable;
+import hashTable.StringHashFamily;
+import heaps.BinaryHeap;
+import heaps.BinomialQueue;
+import heaps.MergeableHeap;
+import heaps.PairingHeap;
+
+/**
+ * Adapters from the hash tables and heaps to Target, and a factory
+ * that creates an empty one by name.
+ * Hash tables support INSERT, REMOVE and CONTAINS;
+ * heaps support INSERT and DELETE_MIN.
+ */
+public final class Targets
+{
+    /**
+     * Names accepted by create.
+     */
+    public static final String [ ] NAMES =
+        { "quadratic", "chaining", "cuckoo", "binaryheap", "binomial", "pairing" };
+
+    /**
+     * Create an empty structure of String keys, wrapped as a Target.
+     * @param name one of NAMES.
+     * @param capacity the initial size hint.
+     * @throws IllegalArgumentException for an unknown name.
+     */
+    public static Target create( String name, int capacity )
+    {
+        switch( name )
+        {
+          case "quadratic":
+            return of( new QuadraticProbingHashTable<String>( capacity ) );
+          case "chaining":
+            return of( new SeparateChainingHashTable<String>( capacity ) );
+          case "cuckoo":
+            return of( new CuckooHashTable<String>( new StringHashFamily( 3 ), capacity ) );
+          case "binaryheap":
+            return of( new BinaryHeap<String>( capacity ) );
+          case "binomial":
+            return of( new BinomialQueue<String>( ) );
+          case "pairing":
+            return of( new PairingHeap<String>( ) );
+          default:
+            throw new IllegalArgumentException( "unknown structure " + name );
+        }
+    }
+
+    /**
+     * Test whether the named structure supports an operation.
+     * @param name one of NAMES.
+     * @param op one of the Target operation codes.
+     * @throws IllegalArgumentException for an unknown name.
+     */
+    public static boolean supports( String name, int op )
+    {
+        if( isHeap( name ) )
+            return op == Target.INSERT || op == Target.DELETE_MIN;
+        create( name, 1 );   // Fails on a bad name
+        return op == Target.INSERT || op == Target.REMOVE || op == Target.CONTAINS;
+    }
+
+    /**
+     * Test whether the named structure is a heap rather than a hash table.
+     */
+    public static boolean isHeap( String name )
+    {
+        return name.equals( "binaryheap" ) || name.equals( "binomial" ) || name.equals( "pairing" );
+    }
+
+    public static Target of( final QuadraticProbingHashTable<String> table )
+    {
+        return new Target( )
+        {
+            public void apply( int op, String key )
+            {
+                switch( op )
+                {
+                  case INSERT:   table.insert( key ); break;
+                  case REMOVE:   table.remove( key ); break;
+                  case CONTAINS: table.contains( key ); break;
+                  default:       throw unsupported( op );
+                }
+            }
+        };
+    }
+
+    public static Target of( final SeparateChainingHashTable<String> table )
+    {
+        return new Target( )
+        {
+            public void apply( int op, String key )
+            {
+                switch( op )
+                {
+                  case INSERT:   table.insert( key ); break;
+                  case REMOVE:   table.remove( key ); break;
+                  case CONTAINS: table.contains( key ); break;
+                  default:       throw unsupported( op );
+                }
+            }
+        };
+    }
+
+    public static Target of( final CuckooHashTable<String> table )
+    {
+        return new Target( )
+        {
+            public void apply( int op, String key )
+            {
+                switch( op )
+                {
+                  case INSERT:   table.insert( key ); break;
+                  case REMOVE:   table.remove( key ); break;
+                  case CONTAINS: table.contains( key ); break;
+                  default:       throw unsupported( op );
+                }
+            }
+        };
+    }
+
+    public static Target of( final BinaryHeap<String> heap )
+    {
+        return new Target( )
+        {
+            public void apply( int op, String key )
+            {
+                switch( op )
+                {
+                  case INSERT:     heap.insert( key ); break;
+                  case DELETE_MIN: heap.deleteMin( ); break;
+                  default:         throw unsupported( op );
+                }
+            }
+        };
+    }
+
+    public static Target of( final MergeableHeap<String, ?> heap )
+    {
+        return new Target( )
+        {
+            public void apply( int op, String key )
+            {
+                switch( op )
+                {
+                  case INSERT:     heap.insert( key ); break;
+                  case DELETE_MIN: heap.deleteMin( ); break;
+                  default:         throw unsupported( op );
+                }
+            }
+        };
+    }
+
+    static UnsupportedOperationException unsupported( int op )
+    {
+        return new UnsupportedOperationException( "operation " + op );
+    }
+
+    private Targets( )
+    {
+    }
+}
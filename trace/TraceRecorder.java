@@ -0,0 +1,119 @@
+package trace;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import serialization.ChunkedWriter;
+import serialization.StreamFormat;
+
+/**
+ * Records operations to a trace file, optionally passing each one on
+ * to a structure as well, so live traffic can be captured as it runs.
+ * <p>
+ * A trace is a StreamFormat header of kind OPERATION_TRACE followed
+ * by one record per operation: the operation code as one byte, the
+ * key's UTF-8 byte count as a varint (7 bits per byte, low first),
+ * and the key bytes. Keys are limited to MAX_KEY_BYTES.
+ */
+public class TraceRecorder implements Target, Closeable
+{
+    public static final int MAX_KEY_BYTES = 0xFFFF;
+
+    /**
+     * Create a recorder that only writes the trace.
+     * @param file the trace file; created or truncated.
+     */
+    public TraceRecorder( Path file ) throws IOException
+    {
+        this( file, null );
+    }
+
+    /**
+     * Create a recorder that writes the trace and applies each
+     * operation to delegate.
+     * @param file the trace file; created or truncated.
+     * @param delegate the structure to pass operations on to, or null.
+     */
+    public TraceRecorder( Path file, Target delegate ) throws IOException
+    {
+        this.delegate = delegate;
+        channel = FileChannel.open( file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE );
+        out = new ChunkedWriter( channel );
+        out.writeHeader( StreamFormat.OPERATION_TRACE );
+    }
+
+    /**
+     * Record an operation, then apply it to the delegate if any.
+     * Write errors are rethrown unchecked, since Target.apply
+     * cannot throw IOException; use record to get them checked.
+     */
+    public void apply( int op, String key )
+    {
+        try
+        {
+            record( op, key );
+        }
+        catch( IOException e )
+        {
+            throw new IllegalStateException( "trace write failed", e );
+        }
+        if( delegate != null )
+            delegate.apply( op, key );
+    }
+
+    /**
+     * Record an operation without applying it.
+     * @param op the operation code from Target.
+     * @param key the key; may be null for DELETE_MIN.
+     * @throws IllegalArgumentException if the key is too long.
+     */
+    public void record( int op, String key ) throws IOException
+    {
+        byte [ ] bytes = key == null || op == DELETE_MIN ? NO_BYTES : key.getBytes( StandardCharsets.UTF_8 );
+        if( bytes.length > MAX_KEY_BYTES )
+            throw new IllegalArgumentException( "key of " + bytes.length + " bytes" );
+
+        out.writeByte( op );
+        int len = bytes.length;
+        for( ; len >= 0x80; len >>>= 7 )
+            out.writeByte( len & 0x7F | 0x80 );
+        out.writeByte( len );
+        out.writeBytes( bytes, 0, bytes.length );
+        count++;
+    }
+
+    /**
+     * @return the number of operations recorded.
+     */
+    public long count( )
+    {
+        return count;
+    }
+
+    /**
+     * Flush and close the trace file. The delegate is left as is.
+     */
+    public void close( ) throws IOException
+    {
+        try
+        {
+            out.flush( );
+        }
+        finally
+        {
+            channel.close( );
+        }
+    }
+
+    private static final byte [ ] NO_BYTES = new byte[ 0 ];
+
+    private final Target delegate;
+    private final FileChannel channel;
+    private final ChunkedWriter out;
+    private long count;
+}
@@ -0,0 +1,192 @@
+package trace;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import bench.LatencyHistogram;
+import serialization.StreamFormat;
+import stringgenerator.KeyLength;
+import stringgenerator.KeyPopularity;
+import stringgenerator.RandomStringGenerator;
+import stringgenerator.Xoshiro256;
+
+/**
+ * Replays a trace written by TraceRecorder against a Target.
+ * The file is memory-mapped, in windows of up to 1 GB, and decoded a
+ * batch at a time into arrays, so decoding is kept out of the timed
+ * loop. Each operation is timed on its own and recorded in a
+ * LatencyHistogram, which gives the percentiles.
+ * <p>
+ * Usage: java trace.TraceReplayer trace-file structure [capacity]
+ * <br>With no arguments, records a demo trace and replays it
+ * against each hash table.
+ */
+public class TraceReplayer
+{
+    /**
+     * The outcome of one replay.
+     */
+    public static class Result
+    {
+        public final long operations;   // Operations applied
+        public final long nanos;        // Sum of per-operation times
+        public final LatencyHistogram latency;
+
+        Result( long operations, long nanos, LatencyHistogram latency )
+        {
+            this.operations = operations;
+            this.nanos = nanos;
+            this.latency = latency;
+        }
+
+        /**
+         * @return operations per second of time spent in the structure.
+         */
+        public double throughput( )
+        {
+            return nanos == 0 ? 0 : operations * 1e9 / nanos;
+        }
+
+        /**
+         * @param p the percentile, in [0, 100].
+         * @return the latency in nanoseconds at that percentile.
+         */
+        public long percentile( double p )
+        {
+            return latency.percentile( p );
+        }
+
+        public String toString( )
+        {
+            return String.format( "%d ops, %.0f ops/s, %s", operations, throughput( ), latency );
+        }
+    }
+
+    /**
+     * Replay a trace.
+     * @param file the trace file.
+     * @param target the structure to apply the operations to.
+     * @return the throughput and latencies.
+     * @throws StreamCorruptedException if the file is not a trace.
+     */
+    public static Result replay( Path file, Target target ) throws IOException
+    {
+        try( FileChannel channel = FileChannel.open( file, StandardOpenOption.READ ) )
+        {
+            long size = channel.size( );
+            long base = 0;
+            MappedByteBuffer map = map( channel, base, size );
+
+            if( size < 12 || map.getInt( ) != StreamFormat.MAGIC )
+                throw new StreamCorruptedException( "bad magic number" );
+            int version = map.getInt( );
+            if( version != StreamFormat.VERSION )
+                throw new StreamCorruptedException( "unsupported version " + version );
+            if( map.getInt( ) != StreamFormat.OPERATION_TRACE )
+                throw new StreamCorruptedException( "not an operation trace" );
+
+            byte [ ] ops = new byte[ BATCH ];
+            String [ ] keys = new String[ BATCH ];
+            byte [ ] scratch = new byte[ TraceRecorder.MAX_KEY_BYTES ];
+            LatencyHistogram latency = new LatencyHistogram( );
+            long count = 0, nanos = 0;
+
+            for( ; ; )
+            {
+                    // Decode a batch, remapping before a record could
+                    // run past the end of the window
+                int n = 0;
+                for( ; n < BATCH; n++ )
+                {
+                    if( map.remaining( ) < MAX_RECORD && base + map.limit( ) < size )
+                    {
+                        base += map.position( );
+                        map = map( channel, base, size );
+                    }
+                    if( !map.hasRemaining( ) )
+                        break;
+
+                    ops[ n ] = map.get( );
+                    int len = 0;
+                    for( int shift = 0; ; shift += 7 )
+                    {
+                        int b = map.get( );
+                        len |= ( b & 0x7F ) << shift;
+                        if( b >= 0 )
+                            break;
+                    }
+                    if( len > TraceRecorder.MAX_KEY_BYTES || len > map.remaining( ) )
+                        throw new StreamCorruptedException( "bad key length " + len );
+                    map.get( scratch, 0, len );
+                    keys[ n ] = new String( scratch, 0, len, StandardCharsets.UTF_8 );
+                }
+                if( n == 0 )
+                    break;
+
+                for( int i = 0; i < n; i++ )
+                {
+                    long start = System.nanoTime( );
+                    target.apply( ops[ i ], keys[ i ] );
+                    long t = System.nanoTime( ) - start;
+
+                    nanos += t;
+                    latency.record( t );
+                    count++;
+                }
+            }
+
+            return new Result( count, nanos, latency );
+        }
+    }
+
+    private static final int BATCH = 4096;
+    private static final long WINDOW = 1L << 30;
+    private static final int MAX_RECORD = 1 + 3 + TraceRecorder.MAX_KEY_BYTES;
+
+    private static MappedByteBuffer map( FileChannel channel, long base, long size ) throws IOException
+    {
+        return channel.map( FileChannel.MapMode.READ_ONLY, base, Math.min( WINDOW, size - base ) );
+    }
+
+    public static void main( String [ ] args ) throws IOException
+    {
+        if( args.length >= 2 )
+        {
+            int capacity = args.length > 2 ? Integer.parseInt( args[ 2 ] ) : 101;
+            System.out.println( args[ 1 ] + ": " + replay( Paths.get( args[ 0 ] ), Targets.create( args[ 1 ], capacity ) ) );
+            return;
+        }
+
+            // Demo: 2M operations on 100k Zipfian keys, half lookups
+        Path file = Files.createTempFile( "demo", ".trace" );
+        int numKeys = 100000;
+        RandomStringGenerator gen = new RandomStringGenerator( 7, KeyLength.geometric( 4, 6, 64 ) );
+        String [ ] keys = new String[ numKeys ];
+        gen.fill( keys );
+        KeyPopularity popularity = KeyPopularity.zipfian( numKeys, 0.99 );
+        Xoshiro256 rnd = gen.random( );
+
+        try( TraceRecorder recorder = new TraceRecorder( file ) )
+        {
+            for( int i = 0; i < 2000000; i++ )
+            {
+                int r = rnd.nextInt( 4 );
+                int op = r < 2 ? Target.CONTAINS : r == 2 ? Target.INSERT : Target.REMOVE;
+                recorder.record( op, keys[ popularity.next( rnd ) ] );
+            }
+            System.out.println( "Recorded " + recorder.count( ) + " operations, "
+                    + Files.size( file ) + " bytes" );
+        }
+
+        for( int round = 0; round < 2; round++ )
+            for( String name : new String[ ] { "quadratic", "chaining", "cuckoo" } )
+                System.out.println( name + ": " + replay( file, Targets.create( name, 101 ) ) );
+        Files.delete( file );
+    }
+}